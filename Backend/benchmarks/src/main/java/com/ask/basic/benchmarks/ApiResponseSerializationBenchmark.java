@@ -0,0 +1,65 @@
+package com.ask.basic.benchmarks;
+
+import com.ask.basic.auth.data.TreeNodeDTO;
+import com.ask.basic.auth.domain.User;
+import com.ask.basic.auth.service.RoleServiceImpl;
+import com.ask.basic.infrastructure.response.ApiResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int users;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<User>> usersResponse;
+    private ApiResponse<List<TreeNodeDTO>> treeResponse;
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring Boot applies to the MVC ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        SyntheticCatalog catalog = SyntheticCatalog.of(500, 25, 50, 20, users, 3);
+        usersResponse = ApiResponse.success(catalog.getUsers(), "Users retrieved successfully");
+
+        RoleServiceImpl roleService = FixtureRepositories.roleService(catalog);
+        treeResponse = ApiResponse.success(roleService.getRolesWithPermissionsGroupedByGroupNameTree(),
+                "Roles with permissions grouped tree retrieved successfully");
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(usersResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeGroupedTree() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(treeResponse);
+    }
+}
@@ -0,0 +1,185 @@
+package com.ask.basic.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark (name plus parameters).
+ * A result regresses when it moved in the "worse" direction for its mode by more than
+ * the threshold percentage and by more than the combined score errors of both runs. A baseline
+ * result without a counterpart in the current run (renamed, removed or crashed) is reported as
+ * missing and fails the comparison as a regression does.
+ */
+public final class BaselineComparison {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final double thresholdPercent;
+    private final List<Entry> entries;
+
+    private BaselineComparison(double thresholdPercent, List<Entry> entries) {
+        this.thresholdPercent = thresholdPercent;
+        this.entries = entries;
+    }
+
+    public static BaselineComparison compare(Path baselineFile, Path currentFile, double thresholdPercent) throws IOException {
+        Map<String, JsonNode> baseline = index(MAPPER.readTree(baselineFile.toFile()));
+        Map<String, JsonNode> current = index(MAPPER.readTree(currentFile.toFile()));
+
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> result : current.entrySet()) {
+            JsonNode before = baseline.get(result.getKey());
+            if (before == null) {
+                entries.add(Entry.added(result.getKey(), result.getValue()));
+                continue;
+            }
+            entries.add(Entry.of(result.getKey(), before, result.getValue(), thresholdPercent));
+        }
+        for (Map.Entry<String, JsonNode> result : baseline.entrySet()) {
+            if (!current.containsKey(result.getKey())) {
+                entries.add(Entry.missing(result.getKey(), result.getValue()));
+            }
+        }
+        return new BaselineComparison(thresholdPercent, entries);
+    }
+
+    public boolean hasRegressions() {
+        return count("REGRESSION") > 0;
+    }
+
+    // Regressions or baseline results the current run no longer has
+    public boolean failed() {
+        return hasRegressions() || count("MISSING") > 0;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-90s %14s %14s %9s  %s%n", "Benchmark", "Baseline", "Current", "Change", "Verdict");
+        for (Entry entry : entries) {
+            out.printf("%-90s %14.3f %14.3f %8.2f%%  %s%n",
+                    entry.key, entry.baselineScore, entry.currentScore, entry.changePercent, entry.verdict);
+        }
+        out.printf("Threshold: %.1f%%, regressions: %d, missing: %d%n", thresholdPercent,
+                count("REGRESSION"), count("MISSING"));
+    }
+
+    public void write(Path out) throws IOException {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("thresholdPercent", thresholdPercent);
+        document.put("regressions", hasRegressions());
+        document.put("missing", count("MISSING"));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Entry entry : entries) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("benchmark", entry.key);
+            row.put("mode", entry.mode);
+            row.put("unit", entry.unit);
+            row.put("baseline", entry.baselineScore);
+            row.put("current", entry.currentScore);
+            row.put("changePercent", entry.changePercent);
+            row.put("verdict", entry.verdict);
+            rows.add(row);
+        }
+        document.put("results", rows);
+        MAPPER.writeValue(out.toFile(), document);
+    }
+
+    private long count(String verdict) {
+        return entries.stream().filter(entry -> verdict.equals(entry.verdict)).count();
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> indexed = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> param = fields.next();
+                key.append(key.indexOf("{") < 0 ? " {" : ", ")
+                        .append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            if (key.indexOf("{") >= 0) {
+                key.append('}');
+            }
+            indexed.put(key.toString(), result);
+        }
+        return indexed;
+    }
+
+    private static final class Entry {
+        private String key;
+        private String mode;
+        private String unit;
+        private double baselineScore;
+        private double currentScore;
+        private double changePercent;
+        private String verdict;
+
+        static Entry added(String key, JsonNode current) {
+            Entry entry = new Entry();
+            entry.key = key;
+            entry.mode = current.path("mode").asText();
+            entry.unit = current.path("primaryMetric").path("scoreUnit").asText();
+            entry.baselineScore = Double.NaN;
+            entry.currentScore = current.path("primaryMetric").path("score").asDouble();
+            entry.changePercent = Double.NaN;
+            entry.verdict = "NEW";
+            return entry;
+        }
+
+        static Entry missing(String key, JsonNode baseline) {
+            Entry entry = new Entry();
+            entry.key = key;
+            entry.mode = baseline.path("mode").asText();
+            entry.unit = baseline.path("primaryMetric").path("scoreUnit").asText();
+            entry.baselineScore = baseline.path("primaryMetric").path("score").asDouble();
+            entry.currentScore = Double.NaN;
+            entry.changePercent = Double.NaN;
+            entry.verdict = "MISSING";
+            return entry;
+        }
+
+        static Entry of(String key, JsonNode baseline, JsonNode current, double thresholdPercent) {
+            Entry entry = new Entry();
+            entry.key = key;
+            entry.mode = current.path("mode").asText();
+            entry.unit = current.path("primaryMetric").path("scoreUnit").asText();
+            entry.baselineScore = baseline.path("primaryMetric").path("score").asDouble();
+            entry.currentScore = current.path("primaryMetric").path("score").asDouble();
+
+            double baselineError = errorOf(baseline);
+            double currentError = errorOf(current);
+            double delta = entry.currentScore - entry.baselineScore;
+            entry.changePercent = entry.baselineScore == 0 ? 0 : delta * 100.0 / entry.baselineScore;
+
+            // Throughput gets worse when it drops, every time-based mode when it grows
+            boolean higherIsBetter = "thrpt".equals(entry.mode);
+            double worsening = higherIsBetter ? -entry.changePercent : entry.changePercent;
+            boolean outsideNoise = Math.abs(delta) > baselineError + currentError;
+
+            if (worsening > thresholdPercent && outsideNoise) {
+                entry.verdict = "REGRESSION";
+            } else if (-worsening > thresholdPercent && outsideNoise) {
+                entry.verdict = "IMPROVEMENT";
+            } else {
+                entry.verdict = "OK";
+            }
+            return entry;
+        }
+
+        private static double errorOf(JsonNode result) {
+            double error = result.path("primaryMetric").path("scoreError").asDouble(0);
+            return Double.isNaN(error) ? 0 : error;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.ask.basic.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Entry point of the shaded benchmarks jar.
+ * <pre>
+ *   java -jar benchmarks.jar run [jmh options]                      # writes jmh-result.json
+ *   java -jar benchmarks.jar compare baseline.json jmh-result.json [--threshold 10] [--out comparison.json]
+ *   java -jar benchmarks.jar sizes [100 1000 10000]                 # encoded payload sizes per format
+ *   java -Xmx4g -jar benchmarks.jar footprint [100000 1000000]      # heap held by the user directory vs entities
+ * </pre>
+ * {@code compare} exits with status 1 when at least one benchmark regressed past the threshold.
+ */
+public final class BenchmarkMain {
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "run";
+        String[] rest = args.length > 0 ? Arrays.copyOfRange(args, 1, args.length) : new String[0];
+
+        switch (mode) {
+            case "run" -> run(rest);
+            case "compare" -> System.exit(compare(rest));
+            case "sizes" -> sizes(rest);
+            case "footprint" -> footprint(rest);
+            default -> {
+                System.err.println("Unknown mode '" + mode + "', expected 'run', 'compare', 'sizes' or 'footprint'");
+                System.exit(2);
+            }
+        }
+    }
+
+    private static void run(String[] jmhArgs) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(jmhArgs);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        // Always leave a machine-readable result behind unless the caller picked a format
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+
+        new Runner(options.build()).run();
+    }
+
+    private static void sizes(String[] args) throws Exception {
+        int[] userCounts = args.length == 0
+                ? new int[]{100, 1000, 10000}
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        PayloadSizes.print(userCounts, System.out);
+    }
+
+    private static void footprint(String[] args) {
+        int[] userCounts = args.length == 0
+                ? new int[]{100000, 1000000}
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        DirectoryFootprint.print(userCounts, System.out);
+    }
+
+    private static int compare(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: compare <baseline.json> <current.json> [--threshold <percent>] [--out <file>]");
+            return 2;
+        }
+
+        double threshold = 10.0;
+        Path out = null;
+        for (int i = 2; i < args.length - 1; i++) {
+            if ("--threshold".equals(args[i])) {
+                threshold = Double.parseDouble(args[++i]);
+            } else if ("--out".equals(args[i])) {
+                out = Path.of(args[++i]);
+            }
+        }
+
+        BaselineComparison comparison = BaselineComparison.compare(Path.of(args[0]), Path.of(args[1]), threshold);
+        comparison.print(System.out);
+        if (out != null) {
+            comparison.write(out);
+        }
+        return comparison.failed() ? 1 : 0;
+    }
+}
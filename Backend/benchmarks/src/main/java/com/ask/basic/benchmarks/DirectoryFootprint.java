@@ -0,0 +1,64 @@
+package com.ask.basic.benchmarks;
+
+import com.ask.basic.auth.domain.User;
+import com.ask.basic.infrastructure.directory.CompactUserStore;
+
+import java.io.PrintStream;
+import java.lang.ref.Reference;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Heap retained by the users of {@link SyntheticCatalog} held as entities (keyed by email and by id,
+ * as a cache of loaded users would) against the same users in a {@link CompactUserStore}. Sizes are
+ * heap usage after a full collection, so give the JVM room: {@code -Xmx4g} covers a million users.
+ */
+final class DirectoryFootprint {
+
+    private DirectoryFootprint() {
+    }
+
+    static void print(int[] userCounts, PrintStream out) {
+        out.printf("%10s %14s %14s %14s %14s %8s%n", "Users", "Entities MB", "Bytes/user", "Store MB", "Bytes/user", "Ratio");
+        for (int users : userCounts) {
+            long entities = retained(() -> {
+                List<User> catalogUsers = SyntheticCatalog.of(200, 20, 50, 10, users, 3).getUsers();
+                Map<String, User> byEmail = new HashMap<>();
+                Map<Long, User> byId = new HashMap<>();
+                catalogUsers.forEach(user -> {
+                    byEmail.put(user.getEmail(), user);
+                    byId.put(user.getId(), user);
+                });
+                return new Object[]{byEmail, byId};
+            });
+            long store = retained(() -> {
+                // the entities only feed the store and are collected before the measurement
+                List<User> catalogUsers = SyntheticCatalog.of(200, 20, 50, 10, users, 3).getUsers();
+                CompactUserStore compact = new CompactUserStore(users);
+                catalogUsers.forEach(user -> UserDirectoryBenchmark.put(compact, user));
+                return compact;
+            });
+            out.printf("%10d %14.1f %14d %14.1f %14d %7.1fx%n", users, entities / 1e6, entities / users,
+                    store / 1e6, store / users, entities / (double) store);
+        }
+    }
+
+    private static long retained(Supplier<Object> build) {
+        long before = usedAfterGc();
+        Object held = build.get();
+        long after = usedAfterGc();
+        // keeps the structure reachable until it has been measured
+        Reference.reachabilityFence(held);
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,78 @@
+package com.ask.basic.benchmarks;
+
+import com.ask.basic.auth.domain.Permission;
+import com.ask.basic.auth.domain.PermissionRepository;
+import com.ask.basic.auth.domain.Role;
+import com.ask.basic.auth.domain.RoleClosureRepository;
+import com.ask.basic.auth.domain.RoleRepository;
+import com.ask.basic.auth.service.RoleHierarchyServiceImpl;
+import com.ask.basic.auth.service.RoleServiceImpl;
+
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repository stand-ins answering from a {@link SyntheticCatalog}, so the service layer
+ * can be measured without a database. Only the methods the benchmarked services call are backed.
+ */
+final class FixtureRepositories {
+
+    private FixtureRepositories() {
+    }
+
+    static RoleRepository roleRepository(SyntheticCatalog catalog) {
+        return (RoleRepository) Proxy.newProxyInstance(
+                RoleRepository.class.getClassLoader(),
+                new Class<?>[]{RoleRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> List.copyOf(catalog.getRoles());
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "FixtureRoleRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static PermissionRepository permissionRepository(SyntheticCatalog catalog) {
+        return (PermissionRepository) Proxy.newProxyInstance(
+                PermissionRepository.class.getClassLoader(),
+                new Class<?>[]{PermissionRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> List.copyOf(catalog.getPermissions());
+                    case "findByRoles" -> permissionsOf((Role) args[0]);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "FixturePermissionRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // The synthetic catalog has no role parents, so no role has ancestors
+    static RoleClosureRepository roleClosureRepository() {
+        return (RoleClosureRepository) Proxy.newProxyInstance(
+                RoleClosureRepository.class.getClassLoader(),
+                new Class<?>[]{RoleClosureRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAncestorsOf", "findDescendantsOf", "findBetween" -> List.of();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "FixtureRoleClosureRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // The tree builders never write, so the services run without their JDBC collaborators
+    static RoleServiceImpl roleService(SyntheticCatalog catalog) {
+        RoleRepository roleRepository = roleRepository(catalog);
+        RoleClosureRepository roleClosureRepository = roleClosureRepository();
+        return new RoleServiceImpl(roleRepository, permissionRepository(catalog), roleClosureRepository,
+                new RoleHierarchyServiceImpl(roleRepository, roleClosureRepository, null, null, null), null, null, null, null, null, null);
+    }
+
+    // Mirrors what the derived query returns: a fresh set per call
+    private static Set<Permission> permissionsOf(Role role) {
+        return new HashSet<>(role.getPermissions());
+    }
+}
@@ -0,0 +1,56 @@
+package com.ask.basic.benchmarks;
+
+import com.ask.basic.auth.domain.User;
+import com.ask.basic.infrastructure.auth.JwtKeyRing;
+import com.ask.basic.infrastructure.auth.JwtProperties;
+import com.ask.basic.infrastructure.auth.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setAllowDevelopmentKey(true);
+        jwtService = new JwtService(new JwtKeyRing(properties));
+        user = SyntheticCatalog.of(10, 2, 1, 1, 1, 1).getUsers().get(0);
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public Boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ask.basic.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.function.Supplier;
+
+/**
+ * Wire formats the API can answer in, each with the mapper settings the application uses.
+ */
+public enum PayloadFormat {
+    JSON(Jackson2ObjectMapperBuilder::json),
+    SMILE(Jackson2ObjectMapperBuilder::smile),
+    CBOR(Jackson2ObjectMapperBuilder::cbor);
+
+    private final Supplier<Jackson2ObjectMapperBuilder> builder;
+
+    PayloadFormat(Supplier<Jackson2ObjectMapperBuilder> builder) {
+        this.builder = builder;
+    }
+
+    ObjectMapper objectMapper() {
+        // Same defaults Spring Boot applies to the MVC ObjectMapper
+        return builder.get()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.ask.basic.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded size of the benchmark payloads per format, raw and gzip-compressed, relative to JSON.
+ */
+final class PayloadSizes {
+
+    private PayloadSizes() {
+    }
+
+    static void print(int[] userCounts, PrintStream out) throws IOException {
+        out.printf("%-14s %8s %-6s %12s %8s %12s %8s%n", "Payload", "Users", "Format", "Bytes", "vs JSON", "Gzip bytes", "vs JSON");
+        for (int users : userCounts) {
+            row(out, "users", users, SerializationFormatBenchmark.usersResponse(users));
+            row(out, "grouped-tree", users, SerializationFormatBenchmark.treeResponse(users));
+        }
+    }
+
+    private static void row(PrintStream out, String payload, int users, Object response) throws IOException {
+        long jsonBytes = 0;
+        long jsonGzipBytes = 0;
+        for (PayloadFormat format : PayloadFormat.values()) {
+            ObjectMapper objectMapper = format.objectMapper();
+            byte[] encoded = objectMapper.writeValueAsBytes(response);
+            long gzipBytes = gzipSize(encoded);
+            if (format == PayloadFormat.JSON) {
+                jsonBytes = encoded.length;
+                jsonGzipBytes = gzipBytes;
+            }
+            out.printf("%-14s %8d %-6s %12d %7.1f%% %12d %7.1f%%%n", payload, users, format,
+                    encoded.length, encoded.length * 100.0 / jsonBytes, gzipBytes, gzipBytes * 100.0 / jsonGzipBytes);
+        }
+    }
+
+    private static long gzipSize(byte[] encoded) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(encoded.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(encoded);
+        }
+        return buffer.size();
+    }
+}
@@ -0,0 +1,81 @@
+package com.ask.basic.benchmarks;
+
+import com.ask.basic.auth.domain.User;
+import com.ask.basic.infrastructure.authorization.PermissionTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionCheckBenchmark {
+
+    // Explicit permission grants held by the measured user
+    @Param({"10", "100", "1000"})
+    public int grants;
+
+    private Collection<? extends GrantedAuthority> authorities;
+    private List<String> grantNames;
+    private PermissionTrie trie;
+    private String held;
+    private String missing;
+
+    @Setup
+    public void setUp() {
+        SyntheticCatalog catalog = SyntheticCatalog.of(grants * 4, 20, 1, grants, 0, 0);
+        User user = catalog.superUser();
+        authorities = user.getAuthorities();
+        grantNames = new ArrayList<>();
+        for (GrantedAuthority authority : authorities) {
+            grantNames.add(authority.getAuthority());
+        }
+        trie = PermissionTrie.compile(grantNames);
+        held = grantNames.get(grantNames.size() - 1);
+        missing = "group0:missing-permission";
+    }
+
+    // What hasAuthority() does: a scan of the authorities with string equality
+    @Benchmark
+    public boolean flatScanMiss() {
+        for (GrantedAuthority authority : authorities) {
+            if (missing.equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean trieHit() {
+        return trie.implies(held);
+    }
+
+    @Benchmark
+    public boolean trieMiss() {
+        return trie.implies(missing);
+    }
+
+    // Paid once per request, on its first permission check
+    @Benchmark
+    public PermissionTrie compile() {
+        return PermissionTrie.compile(grantNames);
+    }
+}
@@ -0,0 +1,86 @@
+package com.ask.basic.benchmarks;
+
+import com.ask.basic.auth.data.TreeNodeDTO;
+import com.ask.basic.auth.domain.User;
+import com.ask.basic.auth.service.RoleServiceImpl;
+import com.ask.basic.infrastructure.response.ApiResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON against Smile and CBOR for the largest responses. Encoded sizes are printed by
+ * {@code benchmarks.jar sizes}, since JMH only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationFormatBenchmark {
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    public PayloadFormat format;
+
+    @Param({"100", "1000", "10000"})
+    public int users;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<User>> usersResponse;
+    private ApiResponse<List<TreeNodeDTO>> treeResponse;
+    private byte[] encodedUsers;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = format.objectMapper();
+        usersResponse = usersResponse(users);
+        treeResponse = treeResponse(users);
+        encodedUsers = objectMapper.writeValueAsBytes(usersResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws IOException {
+        return objectMapper.writeValueAsBytes(usersResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeGroupedTree() throws IOException {
+        return objectMapper.writeValueAsBytes(treeResponse);
+    }
+
+    // What a client pays to read the list back
+    @Benchmark
+    public JsonNode parseUsers() throws IOException {
+        return objectMapper.readTree(encodedUsers);
+    }
+
+    static ApiResponse<List<User>> usersResponse(int users) {
+        return ApiResponse.success(catalog(users).getUsers(), "Users retrieved successfully");
+    }
+
+    static ApiResponse<List<TreeNodeDTO>> treeResponse(int users) {
+        SyntheticCatalog catalog = catalog(users);
+        RoleServiceImpl roleService = FixtureRepositories.roleService(catalog);
+        return ApiResponse.success(roleService.getRolesWithPermissionsGroupedByGroupNameTree(),
+                "Roles with permissions grouped tree retrieved successfully");
+    }
+
+    private static SyntheticCatalog catalog(int users) {
+        return SyntheticCatalog.of(500, 25, 50, 20, users, 3);
+    }
+}
@@ -0,0 +1,111 @@
+package com.ask.basic.benchmarks;
+
+import com.ask.basic.auth.domain.AccountStatus;
+import com.ask.basic.auth.domain.Permission;
+import com.ask.basic.auth.domain.Role;
+import com.ask.basic.auth.domain.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * In-memory catalog of permissions, roles and users wired together the same way
+ * Hibernate would hydrate them. Built from a fixed seed so every fork measures the same graph.
+ */
+public final class SyntheticCatalog {
+
+    private static final long SEED = 20240901L;
+
+    private final List<Permission> permissions;
+    private final List<Role> roles;
+    private final List<User> users;
+
+    private SyntheticCatalog(List<Permission> permissions, List<Role> roles, List<User> users) {
+        this.permissions = permissions;
+        this.roles = roles;
+        this.users = users;
+    }
+
+    public static SyntheticCatalog of(int permissionCount, int groupCount, int roleCount, int permissionsPerRole,
+                                      int userCount, int rolesPerUser) {
+        Random random = new Random(SEED);
+        LocalDateTime now = LocalDateTime.of(2024, 9, 1, 8, 0);
+
+        List<Permission> permissions = new ArrayList<>(permissionCount);
+        for (int i = 0; i < permissionCount; i++) {
+            Permission permission = Permission.builder()
+                    .id((long) i + 1)
+                    .name("group" + (i % groupCount) + ":permission" + i)
+                    .groupName("group" + (i % groupCount))
+                    .isActive(true)
+                    .build();
+            permission.setRoles(new HashSet<>());
+            permissions.add(permission);
+        }
+
+        List<Role> roles = new ArrayList<>(roleCount);
+        for (int i = 0; i < roleCount; i++) {
+            Role role = new Role("role" + i, true);
+            role.setId((long) i + 1);
+            for (int j = 0; j < Math.min(permissionsPerRole, permissionCount); j++) {
+                Permission permission = permissions.get(random.nextInt(permissionCount));
+                role.getPermissions().add(permission);
+                permission.getRoles().add(role);
+            }
+            roles.add(role);
+        }
+
+        List<User> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            Set<Role> userRoles = new HashSet<>();
+            for (int j = 0; j < Math.min(rolesPerUser, roleCount); j++) {
+                userRoles.add(roles.get(random.nextInt(roleCount)));
+            }
+            User user = User.builder()
+                    .id((long) i + 1)
+                    .title("Mx")
+                    .firstName("first" + i)
+                    .lastName("last" + i)
+                    .displayName("first" + i + " last" + i)
+                    .email("user" + i + "@school.test")
+                    .mobileNumber("0100" + (1000000 + i))
+                    .accountStatus(i % 10 == 0 ? AccountStatus.INACTIVE : AccountStatus.ACTIVE)
+                    .isActive(i % 10 != 0)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .roles(userRoles)
+                    .build();
+            users.add(user);
+        }
+
+        return new SyntheticCatalog(permissions, roles, users);
+    }
+
+    public List<Permission> getPermissions() {
+        return permissions;
+    }
+
+    public List<Role> getRoles() {
+        return roles;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    // A user holding every role, the worst case for authority expansion
+    public User superUser() {
+        return User.builder()
+                .id(0L)
+                .firstName("super")
+                .lastName("user")
+                .email("super@school.test")
+                .isActive(true)
+                .roles(new HashSet<>(roles))
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.ask.basic.benchmarks;
+
+import com.ask.basic.auth.data.TreeNodeDTO;
+import com.ask.basic.auth.service.PermissionServiceImpl;
+import com.ask.basic.auth.service.RoleServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeBuilderBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int roles;
+
+    @Param({"100", "1000"})
+    public int permissions;
+
+    private RoleServiceImpl roleService;
+    private PermissionServiceImpl permissionService;
+
+    @Setup
+    public void setUp() {
+        SyntheticCatalog catalog = SyntheticCatalog.of(permissions, 25, roles, Math.max(1, permissions / 10), 0, 0);
+        roleService = FixtureRepositories.roleService(catalog);
+        permissionService = new PermissionServiceImpl(FixtureRepositories.permissionRepository(catalog));
+    }
+
+    @Benchmark
+    public List<TreeNodeDTO> rolesWithPermissionsTree() {
+        return roleService.getRolesWithPermissionsTree();
+    }
+
+    @Benchmark
+    public List<TreeNodeDTO> rolesWithPermissionsGroupedByGroupNameTree() {
+        return roleService.getRolesWithPermissionsGroupedByGroupNameTree();
+    }
+
+    @Benchmark
+    public List<TreeNodeDTO> permissionsGroupedByGroupName() {
+        return permissionService.getPermissionsGroupedByGroupName();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ask.basic.benchmarks;
+
+import com.ask.basic.auth.data.RoleDto;
+import com.ask.basic.auth.domain.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserAuthoritiesBenchmark {
+
+    // Number of roles held by the measured user
+    @Param({"1", "10", "50"})
+    public int roles;
+
+    // Permissions attached to each role
+    @Param({"10", "100"})
+    public int permissionsPerRole;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        SyntheticCatalog catalog = SyntheticCatalog.of(permissionsPerRole * 4, 20, roles, permissionsPerRole, 0, 0);
+        user = catalog.superUser();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public HashSet<RoleDto> getRolesAndPermissions() {
+        return user.getRolesAndPermissions();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ask.basic.benchmarks;
+
+import com.ask.basic.auth.domain.User;
+import com.ask.basic.infrastructure.directory.CompactUserStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Identity lookups from {@link CompactUserStore} against maps of entities. Run with {@code -prof gc}
+ * for the bytes allocated per lookup; {@code footprint} reports what each holds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDirectoryBenchmark {
+
+    static final String TENANT = "default";
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    private CompactUserStore store;
+    private Map<String, User> entitiesByEmail;
+    private Map<Long, User> entitiesById;
+    private String[] emails;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<User> catalogUsers = SyntheticCatalog.of(200, 20, 50, 10, users, 3).getUsers();
+        store = new CompactUserStore(users);
+        entitiesByEmail = new HashMap<>();
+        entitiesById = new HashMap<>();
+        emails = new String[users];
+        for (int i = 0; i < users; i++) {
+            User user = catalogUsers.get(i);
+            put(store, user);
+            entitiesByEmail.put(user.getEmail(), user);
+            entitiesById.put(user.getId(), user);
+            emails[i] = user.getEmail();
+        }
+    }
+
+    @Benchmark
+    public CompactUserStore.Identity storeByEmail() {
+        return store.findByEmail(TENANT, nextEmail());
+    }
+
+    @Benchmark
+    public User entitiesByEmail() {
+        return entitiesByEmail.get(nextEmail());
+    }
+
+    @Benchmark
+    public CompactUserStore.Identity storeById() {
+        return store.get(nextId());
+    }
+
+    @Benchmark
+    public User entitiesById() {
+        return entitiesById.get(nextId());
+    }
+
+    static void put(CompactUserStore store, User user) {
+        int[] roleIds = user.getRoles().stream().mapToInt(role -> Math.toIntExact(role.getId())).toArray();
+        store.put(user.getId(), TENANT, user.getEmail(), user.getUsername(), Boolean.TRUE.equals(user.getIsActive()),
+                user.getAccountStatus(), roleIds);
+    }
+
+    private String nextEmail() {
+        next = next + 1 == users ? 0 : next + 1;
+        return emails[next];
+    }
+
+    private long nextId() {
+        next = next + 1 == users ? 0 : next + 1;
+        return next + 1L;
+    }
+}
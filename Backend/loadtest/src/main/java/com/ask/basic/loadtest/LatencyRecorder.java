@@ -0,0 +1,63 @@
+package com.ask.basic.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Per-worker latency buffer; workers never share one, so recording needs no synchronisation.
+ * Buffers are merged once the scenario has finished.
+ */
+final class LatencyRecorder {
+
+    private long[] latenciesNanos = new long[4_096];
+    private int size;
+    private long errors;
+    private long shed;
+
+    void recordShed() {
+        shed++;
+    }
+
+    void record(long nanos, boolean error) {
+        if (size == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, size * 2);
+        }
+        latenciesNanos[size++] = nanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    static Merged merge(Iterable<LatencyRecorder> recorders) {
+        int total = 0;
+        long errors = 0;
+        long shed = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.size;
+            errors += recorder.errors;
+            shed += recorder.shed;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.latenciesNanos, 0, all, offset, recorder.size);
+            offset += recorder.size;
+        }
+        Arrays.sort(all);
+        return new Merged(all, errors, shed);
+    }
+
+    record Merged(long[] sortedNanos, long errors, long shed) {
+
+        long count() {
+            return sortedNanos.length;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.ask.basic.loadtest;
+
+import com.ask.basic.SchoolApplication;
+import com.ask.basic.infrastructure.dataset.DatasetGenerator;
+import com.ask.basic.infrastructure.dataset.GeneratedDataset;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots {@link SchoolApplication} on a random port against an in-memory H2 database, seeds a
+ * directory, then runs each requested scenario and reports throughput, latency percentiles,
+ * error rate and Hibernate statement counts. Nothing outside the JVM is needed.
+ */
+public final class LoadTestMain {
+
+    private static final String[] EMBEDDED_DATABASE = {
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.hibernate.ddl-auto=create",
+            "--spring.jpa.show-sql=false",
+            "--spring.jpa.properties.hibernate.generate_statistics=true",
+            "--logging.level.root=WARN",
+            "--jwt.allow-development-key=true",
+            // every worker shares one address; the harness measures the application, not the limiter
+            "--rate-limit.enabled=false"
+    };
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        // Spring joins repeated command line properties into a list, so an override must replace the default
+        List<String> applicationArgs = new ArrayList<>();
+        for (String defaultArg : EMBEDDED_DATABASE) {
+            String key = defaultArg.substring(0, defaultArg.indexOf('=') + 1);
+            if (options.applicationArgs.stream().noneMatch(arg -> arg.startsWith(key))) {
+                applicationArgs.add(defaultArg);
+            }
+        }
+        applicationArgs.addAll(options.applicationArgs);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SchoolApplication.class)
+                .run(applicationArgs.toArray(new String[0]))) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI baseUri = URI.create("http://localhost:" + port);
+
+            GeneratedDataset directory = context.getBean(DatasetGenerator.class).generate(options.datasetSpec());
+            System.out.printf("Seeded %d users, %d roles, %d permissions in %.1f s%n",
+                    directory.userCount(), directory.roleCount(), directory.getPermissionIds().length,
+                    directory.getElapsedMillis() / 1000.0);
+
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            ObjectMapper objectMapper = new ObjectMapper();
+            String[] tokens = login(httpClient, objectMapper, baseUri, directory, options.tokenPoolSize);
+
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            ScenarioRunner runner = new ScenarioRunner(httpClient,
+                    new Scenario.ScenarioContext(baseUri, directory, tokens), statistics, options);
+
+            List<ScenarioRunner.ScenarioResult> results = new ArrayList<>();
+            for (Scenario scenario : options.scenarios) {
+                System.out.printf("Running %s for %d s with %d workers...%n",
+                        scenario.cliName(), options.durationSeconds, options.concurrency);
+                results.add(runner.run(scenario));
+            }
+
+            print(results);
+            write(objectMapper, options, results);
+        }
+    }
+
+    private static String[] login(HttpClient httpClient, ObjectMapper objectMapper, URI baseUri,
+                                  GeneratedDataset directory, int poolSize) throws IOException, InterruptedException {
+        // Seeded directories contain inactive users, whose logins are rejected; skip past them
+        List<String> tokens = new ArrayList<>(poolSize);
+        for (int i = 0; i < directory.userCount() && tokens.size() < poolSize; i++) {
+            String body = "{\"email\":\"" + directory.email(i) + "\",\"password\":\"" + directory.getSpec().getPassword() + "\"}";
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/v1/auth/authenticate"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                tokens.add(objectMapper.readTree(response.body()).path("data").path("token").asText());
+            }
+        }
+        if (tokens.isEmpty()) {
+            throw new IllegalStateException("No seeded user could log in");
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static void print(List<ScenarioRunner.ScenarioResult> results) {
+        System.out.printf("%n%-12s %10s %10s %9s %9s %9s %9s %8s %8s %10s %9s%n",
+                "Scenario", "Requests", "Req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "Errors", "Shed", "Statements", "Stmt/req");
+        for (ScenarioRunner.ScenarioResult result : results) {
+            System.out.printf("%-12s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %7.2f%% %8d %10d %9.2f%n",
+                    result.scenario(), result.requests(), result.throughputPerSecond(),
+                    result.p50Millis(), result.p90Millis(), result.p99Millis(), result.maxMillis(),
+                    result.errorRate() * 100, result.shed(), result.sqlStatements(), result.statementsPerRequest());
+        }
+    }
+
+    private static void write(ObjectMapper objectMapper, LoadTestOptions options,
+                              List<ScenarioRunner.ScenarioResult> results) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (ScenarioRunner.ScenarioResult result : results) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("scenario", result.scenario());
+            row.put("concurrency", result.concurrency());
+            row.put("requests", result.requests());
+            row.put("errors", result.errors());
+            row.put("errorRate", result.errorRate());
+            row.put("shed", result.shed());
+            row.put("elapsedSeconds", result.elapsedSeconds());
+            row.put("throughputPerSecond", result.throughputPerSecond());
+            row.put("latencyMillis", Map.of(
+                    "p50", result.p50Millis(),
+                    "p90", result.p90Millis(),
+                    "p99", result.p99Millis(),
+                    "max", result.maxMillis()));
+            row.put("sqlStatements", result.sqlStatements());
+            row.put("statementsPerRequest", result.statementsPerRequest());
+            row.put("entityLoads", result.entityLoads());
+            row.put("collectionFetches", result.collectionFetches());
+            rows.add(row);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("directory", options.datasetSpec());
+        report.put("scenarios", rows);
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(options.report.toFile(), report);
+        System.out.println("Report written to " + options.report.toAbsolutePath());
+    }
+}
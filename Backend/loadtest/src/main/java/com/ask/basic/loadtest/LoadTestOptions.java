@@ -0,0 +1,81 @@
+package com.ask.basic.loadtest;
+
+import com.ask.basic.infrastructure.dataset.DatasetSpec;
+import com.ask.basic.infrastructure.dataset.Distribution;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Harness options, given as {@code --name=value} arguments. Anything not recognised here is passed
+ * on to the Spring application, so application properties can be overridden the usual way.
+ */
+final class LoadTestOptions {
+
+    int users = 2_000;
+    int roles = 50;
+    int permissions = 300;
+    int permissionGroups = 20;
+    int permissionsPerRole = 25;
+    int rolesPerUser = 2;
+    Distribution roleDistribution = Distribution.ZIPF;
+    int concurrency = 16;
+    int durationSeconds = 30;
+    int warmupSeconds = 5;
+    int tokenPoolSize = 64;
+    long seed = 42L;
+    List<Scenario> scenarios = Arrays.asList(Scenario.values());
+    Path report = Path.of("loadtest-report.json");
+    final List<String> applicationArgs = new ArrayList<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                options.applicationArgs.add(arg);
+                continue;
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "users" -> options.users = Integer.parseInt(value);
+                case "roles" -> options.roles = Integer.parseInt(value);
+                case "permissions" -> options.permissions = Integer.parseInt(value);
+                case "permission-groups" -> options.permissionGroups = Integer.parseInt(value);
+                case "permissions-per-role" -> options.permissionsPerRole = Integer.parseInt(value);
+                case "roles-per-user" -> options.rolesPerUser = Integer.parseInt(value);
+                case "role-distribution" -> options.roleDistribution = Distribution.valueOf(value.toUpperCase());
+                case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "duration" -> options.durationSeconds = Integer.parseInt(value);
+                case "warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                case "token-pool" -> options.tokenPoolSize = Integer.parseInt(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "scenarios" -> options.scenarios = Arrays.stream(value.split(","))
+                        .map(String::trim)
+                        .map(Scenario::fromName)
+                        .toList();
+                case "report" -> options.report = Path.of(value);
+                default -> options.applicationArgs.add(arg);
+            }
+        }
+        return options;
+    }
+
+    DatasetSpec datasetSpec() {
+        return DatasetSpec.builder()
+                .tag("loadtest")
+                .seed(seed)
+                .users(users)
+                .roles(roles)
+                .permissions(permissions)
+                .permissionGroups(permissionGroups)
+                .permissionsPerRole(permissionsPerRole)
+                .rolesPerUser(rolesPerUser)
+                .roleDistribution(roleDistribution)
+                .password("loadtest-password")
+                .build();
+    }
+}
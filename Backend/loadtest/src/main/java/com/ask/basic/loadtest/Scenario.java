@@ -0,0 +1,128 @@
+package com.ask.basic.loadtest;
+
+import com.ask.basic.infrastructure.dataset.GeneratedDataset;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The workloads the harness can drive. Each scenario builds one request per call; the
+ * mixed scenario picks one of the others with fixed weights.
+ */
+enum Scenario {
+
+    LOGIN("login") {
+        @Override
+        HttpRequest next(ScenarioContext context, SplittableRandom random) {
+            GeneratedDataset directory = context.directory();
+            String email = directory.email(random.nextInt(directory.userCount()));
+            String body = "{\"email\":\"" + email + "\",\"password\":\"" + directory.getSpec().getPassword() + "\"}";
+            return context.post("/api/v1/auth/authenticate", body, null);
+        }
+    },
+
+    USER_READS("users") {
+        @Override
+        HttpRequest next(ScenarioContext context, SplittableRandom random) {
+            String token = context.token(random);
+            if (random.nextInt(4) == 0) {
+                return context.get("/api/v1/auth/users", token);
+            }
+            long userId = context.directory().getUserIds()[random.nextInt(context.directory().userCount())];
+            return context.get("/api/v1/auth/user/" + userId, token);
+        }
+    },
+
+    TREE_POLLING("tree") {
+        @Override
+        HttpRequest next(ScenarioContext context, SplittableRandom random) {
+            String token = context.token(random);
+            return switch (random.nextInt(3)) {
+                case 0 -> context.get("/api/v1/auth/roles_with_permissions_tree", token);
+                case 1 -> context.get("/api/v1/auth/roles_with_permissions_grouped_by_group_name_tree", token);
+                default -> context.get("/api/v1/auth/permissions_grouped_by_group_name", token);
+            };
+        }
+    },
+
+    ROLE_EDITS("role-edits") {
+        @Override
+        HttpRequest next(ScenarioContext context, SplittableRandom random) {
+            String token = context.token(random);
+            GeneratedDataset directory = context.directory();
+            if (random.nextInt(5) == 0) {
+                long roleId = directory.getRoleIds()[random.nextInt(directory.roleCount())];
+                String body = "{\"id\":" + roleId + ",\"name\":\"role-" + roleId + "-" + random.nextInt(1_000_000) + "\"}";
+                return context.post("/api/v1/auth/update_role_name", body, token);
+            }
+            long userId = directory.getUserIds()[random.nextInt(directory.userCount())];
+            StringBuilder roles = new StringBuilder();
+            int count = 1 + random.nextInt(Math.min(5, directory.roleCount()));
+            for (int i = 0; i < count; i++) {
+                roles.append(i == 0 ? "" : ",").append(directory.getRoleIds()[random.nextInt(directory.roleCount())]);
+            }
+            String body = "{\"userId\":" + userId + ",\"rolesList\":[" + roles + "]}";
+            return context.post("/api/v1/auth/attachRolesToUser", body, token);
+        }
+    },
+
+    MIXED("mixed") {
+        @Override
+        HttpRequest next(ScenarioContext context, SplittableRandom random) {
+            int pick = random.nextInt(100);
+            if (pick < 10) {
+                return LOGIN.next(context, random);
+            } else if (pick < 60) {
+                return USER_READS.next(context, random);
+            } else if (pick < 90) {
+                return TREE_POLLING.next(context, random);
+            }
+            return ROLE_EDITS.next(context, random);
+        }
+    };
+
+    private final String cliName;
+
+    Scenario(String cliName) {
+        this.cliName = cliName;
+    }
+
+    String cliName() {
+        return cliName;
+    }
+
+    abstract HttpRequest next(ScenarioContext context, SplittableRandom random);
+
+    static Scenario fromName(String name) {
+        return Arrays.stream(values())
+                .filter(scenario -> scenario.cliName.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown scenario: " + name));
+    }
+
+    record ScenarioContext(URI baseUri, GeneratedDataset directory, String[] tokens) {
+
+        String token(SplittableRandom random) {
+            return tokens[random.nextInt(tokens.length)];
+        }
+
+        HttpRequest get(String path, String token) {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .header("token", token)
+                    .GET()
+                    .build();
+        }
+
+        HttpRequest post(String path, String body, String token) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+            if (token != null) {
+                builder.header("token", token);
+            }
+            return builder.build();
+        }
+    }
+}
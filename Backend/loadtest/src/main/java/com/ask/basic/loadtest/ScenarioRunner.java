@@ -0,0 +1,146 @@
+package com.ask.basic.loadtest;
+
+import org.hibernate.stat.Statistics;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives one scenario with a closed loop of {@code concurrency} workers: every worker sends its next
+ * request as soon as the previous one completed. A warm-up phase runs first and is not recorded.
+ * Requests shed by admission control (503) are counted apart from the latencies, and the worker
+ * waits for the {@code Retry-After} delay like a well-behaved client would.
+ */
+final class ScenarioRunner {
+
+    private final HttpClient httpClient;
+    private final Scenario.ScenarioContext context;
+    private final Statistics statistics;
+    private final LoadTestOptions options;
+
+    ScenarioRunner(HttpClient httpClient, Scenario.ScenarioContext context, Statistics statistics, LoadTestOptions options) {
+        this.httpClient = httpClient;
+        this.context = context;
+        this.statistics = statistics;
+        this.options = options;
+    }
+
+    ScenarioResult run(Scenario scenario) throws InterruptedException {
+        drive(scenario, Duration.ofSeconds(options.warmupSeconds), options.seed - 1);
+
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long entityLoadsBefore = statistics.getEntityLoadCount();
+        long collectionFetchesBefore = statistics.getCollectionFetchCount();
+        long started = System.nanoTime();
+
+        List<LatencyRecorder> recorders = drive(scenario, Duration.ofSeconds(options.durationSeconds), options.seed);
+
+        double elapsedSeconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        LatencyRecorder.Merged merged = LatencyRecorder.merge(recorders);
+        return new ScenarioResult(
+                scenario.cliName(),
+                options.concurrency,
+                merged.count(),
+                merged.errors(),
+                merged.shed(),
+                elapsedSeconds,
+                merged.count() / elapsedSeconds,
+                merged.percentileMillis(50),
+                merged.percentileMillis(90),
+                merged.percentileMillis(99),
+                merged.percentileMillis(100),
+                statistics.getPrepareStatementCount() - statementsBefore,
+                statistics.getEntityLoadCount() - entityLoadsBefore,
+                statistics.getCollectionFetchCount() - collectionFetchesBefore);
+    }
+
+    private List<LatencyRecorder> drive(Scenario scenario, Duration duration, long seed) throws InterruptedException {
+        List<LatencyRecorder> recorders = new ArrayList<>(options.concurrency);
+        if (duration.isZero()) {
+            return recorders;
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency);
+        CountDownLatch done = new CountDownLatch(options.concurrency);
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        for (int worker = 0; worker < options.concurrency; worker++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders.add(recorder);
+            SplittableRandom random = new SplittableRandom(seed * 31 + worker);
+            workers.execute(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = scenario.next(context, random);
+                        long start = System.nanoTime();
+                        boolean error;
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 503) {
+                                recorder.recordShed();
+                                backOff(response, deadline);
+                                continue;
+                            }
+                            error = response.statusCode() >= 400;
+                        } catch (Exception e) {
+                            error = true;
+                        }
+                        recorder.record(System.nanoTime() - start, error);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        done.await();
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        return recorders;
+    }
+
+    private static void backOff(HttpResponse<?> response, long deadline) {
+        long retryAfterNanos = TimeUnit.SECONDS.toNanos(response.headers().firstValueAsLong("Retry-After").orElse(1));
+        long sleepNanos = Math.min(retryAfterNanos, deadline - System.nanoTime());
+        if (sleepNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    record ScenarioResult(String scenario,
+                          int concurrency,
+                          long requests,
+                          long errors,
+                          long shed,
+                          double elapsedSeconds,
+                          double throughputPerSecond,
+                          double p50Millis,
+                          double p90Millis,
+                          double p99Millis,
+                          double maxMillis,
+                          long sqlStatements,
+                          long entityLoads,
+                          long collectionFetches) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        double statementsPerRequest() {
+            return requests == 0 ? 0 : (double) sqlStatements / requests;
+        }
+    }
+}
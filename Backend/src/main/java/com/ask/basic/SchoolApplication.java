@@ -2,20 +2,26 @@ package com.ask.basic;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.ask.basic.auth.domain.User;
 import com.ask.basic.auth.domain.UserRepository;
+import com.ask.basic.infrastructure.aot.NativeRuntimeHints;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class SchoolApplication {
     public static void main(String[] args) {
         SpringApplication.run(SchoolApplication.class, args);
     }
 
-    @EventListener(ContextRefreshedEvent.class)
-    public void insertDefaultUserAfterDbInit(ContextRefreshedEvent event) {
+    // Ready is published once per boot, unlike ContextRefreshedEvent which every child context repeats
+    @EventListener(ApplicationReadyEvent.class)
+    public void insertDefaultUserAfterDbInit(ApplicationReadyEvent event) {
         UserRepository userRepository = event.getApplicationContext().getBean(UserRepository.class);
         org.springframework.security.crypto.password.PasswordEncoder passwordEncoder = event.getApplicationContext().getBean(org.springframework.security.crypto.password.PasswordEncoder.class);
         String email = "admin@demo.com";
@@ -1,22 +1,43 @@
 package com.ask.basic.auth.controller;
 
 import com.ask.basic.auth.data.AttachRolesToUserRequest;
+import com.ask.basic.auth.data.CheckPermissionsRequest;
+import com.ask.basic.auth.data.CloneRoleRequest;
 import com.ask.basic.auth.data.CreateRoleRequest;
+import com.ask.basic.auth.data.DirectoryStatisticsDto;
+import com.ask.basic.auth.data.EffectivePermissionsRebuild;
+import com.ask.basic.auth.data.IntrospectTokensRequest;
+import com.ask.basic.auth.data.MergeRolesRequest;
+import com.ask.basic.auth.data.PermissionCheckResult;
+import com.ask.basic.auth.data.PermissionDto;
+import com.ask.basic.auth.data.PermissionHoldersPage;
+import com.ask.basic.auth.data.RoleDto;
+import com.ask.basic.auth.data.RoleOperationResult;
+import com.ask.basic.auth.data.TokenIntrospection;
 import com.ask.basic.auth.data.TreeNodeDTO;
+import com.ask.basic.auth.data.UpdateRoleParentsRequest;
+import com.ask.basic.auth.data.UpdateRolePermissionsRequest;
 import com.ask.basic.auth.data.UpdateRoleRequest;
 import com.ask.basic.auth.data.UpdateUserRequest;
+import com.ask.basic.auth.data.UserFields;
+import com.ask.basic.auth.data.UserView;
 import com.ask.basic.auth.domain.Role;
 import com.ask.basic.auth.domain.User;
 import com.ask.basic.auth.request.LoginRequest;
 import com.ask.basic.auth.request.RegisterRequest;
 import com.ask.basic.auth.response.LoginResponse;
 import com.ask.basic.auth.service.AuthWritePlatformService;
+import com.ask.basic.auth.service.EffectivePermissionService;
 import com.ask.basic.auth.service.PermissionService;
+import com.ask.basic.auth.service.RoleHierarchyService;
 import com.ask.basic.auth.service.RoleService;
+import com.ask.basic.auth.service.TokenIntrospectionService;
 import com.ask.basic.auth.service.UserService;
 import com.ask.basic.infrastructure.response.ApiResponse;
+import com.ask.basic.infrastructure.tenancy.TenantIdentifierResolver;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
@@ -29,8 +50,12 @@ public class AuthController {
 
     private final AuthWritePlatformService authWritePlatformService;
     private final RoleService roleService;
+    private final RoleHierarchyService roleHierarchyService;
     private final UserService userService;
     private final PermissionService permissionService;
+    private final EffectivePermissionService effectivePermissionService;
+    private final TokenIntrospectionService tokenIntrospectionService;
+    private final TenantIdentifierResolver tenantIdentifierResolver;
 
     // Register a new user
     @PostMapping("/register")
@@ -46,10 +71,26 @@ public class AuthController {
         return ApiResponse.success(response, "Authentication successful");
     }
 
+    // Subject, expiry and authorities of a batch of tokens, for services that only hold the token
+    @PostMapping("/introspect_tokens")
+    @PreAuthorize("hasPermission(null, 'auth:introspect')")
+    public ApiResponse<List<TokenIntrospection>> introspectTokens(@Valid @RequestBody IntrospectTokensRequest request) {
+        List<TokenIntrospection> result = this.tokenIntrospectionService.introspect(request);
+        return ApiResponse.success(result, "Tokens introspected successfully");
+    }
+
+    // Whether each user holds each permission, for a batch of users
+    @PostMapping("/check_permissions")
+    @PreAuthorize("hasPermission(null, 'auth:introspect')")
+    public ApiResponse<List<PermissionCheckResult>> checkPermissions(@Valid @RequestBody CheckPermissionsRequest request) {
+        List<PermissionCheckResult> result = this.tokenIntrospectionService.checkPermissions(request);
+        return ApiResponse.success(result, "Permissions checked successfully");
+    }
+
     // Create a new role
     @PostMapping("/create_role")
-    public ApiResponse<Role> create(@Valid @RequestBody CreateRoleRequest createRoleRequest) {
-        Role role = this.roleService.createRole(createRoleRequest);
+    public ApiResponse<RoleDto> create(@Valid @RequestBody CreateRoleRequest createRoleRequest) {
+        RoleDto role = this.roleService.createRole(createRoleRequest);
         return ApiResponse.success(role, "Role created successfully");
     }
 
@@ -59,6 +100,34 @@ public class AuthController {
         return ApiResponse.success(role, "Role name updated successfully");
     }
 
+    // Replace, add or remove a role's permissions in one call
+    @PostMapping("/update_role_permissions")
+    public ApiResponse<RoleDto> updateRolePermissions(@Valid @RequestBody UpdateRolePermissionsRequest updateRolePermissionsRequest) {
+        RoleDto role = this.roleService.updateRolePermissions(updateRolePermissionsRequest);
+        return ApiResponse.success(role, "Role permissions updated successfully");
+    }
+
+    // Copy a role with its permissions and parents, under a new name
+    @PostMapping("/clone_role")
+    public ApiResponse<RoleOperationResult> cloneRole(@Valid @RequestBody CloneRoleRequest cloneRoleRequest) {
+        RoleOperationResult result = this.roleService.cloneRole(cloneRoleRequest);
+        return ApiResponse.success(result, "Role cloned successfully");
+    }
+
+    // Move the permissions, users and children of one role to another, then delete it
+    @PostMapping("/merge_roles")
+    public ApiResponse<RoleOperationResult> mergeRoles(@Valid @RequestBody MergeRolesRequest mergeRolesRequest) {
+        RoleOperationResult result = this.roleService.mergeRoles(mergeRolesRequest);
+        return ApiResponse.success(result, "Roles merged successfully");
+    }
+
+    // Replace the parents a role inherits permissions from
+    @PostMapping("/update_role_parents")
+    public ApiResponse<Role> updateRoleParents(@Valid @RequestBody UpdateRoleParentsRequest updateRoleParentsRequest) {
+        Role role = this.roleHierarchyService.updateRoleParents(updateRoleParentsRequest);
+        return ApiResponse.success(role, "Role parents updated successfully");
+    }
+
     // Get roles with permissions in a tree structure
     @GetMapping("/roles_with_permissions_tree")
     public ApiResponse<List<TreeNodeDTO>> rolesWithPermissionsTree() {
@@ -89,9 +158,9 @@ public class AuthController {
 
     // Delete a role by ID
     @DeleteMapping("/roles/{id}")
-    public ApiResponse<Role> deleteRoleById(@PathVariable("id") Long id) {
-        Role role = this.roleService.deleteRole(id);
-        return ApiResponse.success(role, "Role deleted successfully");
+    public ApiResponse<RoleOperationResult> deleteRoleById(@PathVariable("id") Long id) {
+        RoleOperationResult result = this.roleService.deleteRole(id);
+        return ApiResponse.success(result, "Role deleted successfully");
     }
 
     // Get user by ID
@@ -101,6 +170,13 @@ public class AuthController {
         return ApiResponse.success(user, "User retrieved successfully");
     }
 
+    // Get user by ID with only the requested fields
+    @GetMapping(value = "/user/{id}", params = "fields")
+    public ApiResponse<UserView> getUserById(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        UserView user = this.userService.getUserById(id, UserFields.parse(fields));
+        return ApiResponse.success(user, "User retrieved successfully");
+    }
+
     // Get all users
     @GetMapping("/users")
     public ApiResponse<List<User>> getUsers() {
@@ -108,6 +184,47 @@ public class AuthController {
         return ApiResponse.success(users, "Users retrieved successfully");
     }
 
+    // Get all users with only the requested fields
+    @GetMapping(value = "/users", params = "fields")
+    public ApiResponse<List<UserView>> getUsers(@RequestParam("fields") String fields) {
+        List<UserView> users = this.userService.getAllUsers(UserFields.parse(fields));
+        return ApiResponse.success(users, "Users retrieved successfully");
+    }
+
+    // Every permission a user holds, inherited ones included
+    @GetMapping("/user/{id}/permissions")
+    public ApiResponse<List<PermissionDto>> getUserPermissions(@PathVariable("id") Long id) {
+        List<PermissionDto> permissions = this.userService.getUserPermissions(id);
+        return ApiResponse.success(permissions, "User permissions retrieved successfully");
+    }
+
+    // Recompute user_effective_permission for the current tenant from the role and user links
+    @PostMapping("/rebuild_effective_permissions")
+    @PreAuthorize("hasPermission(null, 'permissions:rebuild')")
+    public ApiResponse<EffectivePermissionsRebuild> rebuildEffectivePermissions() {
+        String tenant = this.tenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        EffectivePermissionsRebuild rebuild = this.effectivePermissionService.rebuild(tenant);
+        return ApiResponse.success(rebuild, "Effective permissions rebuilt successfully");
+    }
+
+    // Users holding a permission, or any permission of a group, one page at a time
+    @GetMapping("/permission_holders")
+    public ApiResponse<PermissionHoldersPage> getPermissionHolders(@RequestParam(value = "permission", required = false) String permission,
+                                                                   @RequestParam(value = "group", required = false) String group,
+                                                                   @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                   @RequestParam(value = "size", defaultValue = "50") int size,
+                                                                   @RequestParam(value = "fields", defaultValue = "username,email") String fields) {
+        PermissionHoldersPage holders = this.userService.getPermissionHolders(permission, group, page, size, UserFields.parse(fields));
+        return ApiResponse.success(holders, "Permission holders retrieved successfully");
+    }
+
+    // User counts for the dashboard, from counters kept by the write paths
+    @GetMapping("/directory_statistics")
+    public ApiResponse<DirectoryStatisticsDto> getDirectoryStatistics() {
+        DirectoryStatisticsDto statistics = this.userService.getDirectoryStatistics();
+        return ApiResponse.success(statistics, "Directory statistics retrieved successfully");
+    }
+
     // Update user by ID
     @PutMapping("/user/update")
     public ApiResponse<User> updateUser(@Valid @RequestBody UpdateUserRequest request) {
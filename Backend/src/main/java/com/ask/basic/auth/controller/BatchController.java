@@ -0,0 +1,29 @@
+package com.ask.basic.auth.controller;
+
+import com.ask.basic.auth.data.BatchRequest;
+import com.ask.basic.infrastructure.batch.BatchDispatcher;
+import com.ask.basic.infrastructure.response.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/auth")
+public class BatchController {
+
+    private final BatchDispatcher batchDispatcher;
+
+    // Several AuthController operations in one round-trip, authenticated once and optionally in one transaction
+    @PostMapping("/batch")
+    public ApiResponse<List<ApiResponse<?>>> batch(@Valid @RequestBody BatchRequest request, HttpServletRequest servletRequest) {
+        List<ApiResponse<?>> results = this.batchDispatcher.execute(AuthController.class, request, servletRequest);
+        return ApiResponse.success(results, "Batch executed successfully");
+    }
+}
@@ -0,0 +1,39 @@
+package com.ask.basic.auth.data;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequest {
+    // all operations commit together, or none does
+    boolean transactional;
+
+    @Valid
+    @NotEmpty
+    List<Operation> operations;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Operation {
+        @NotBlank
+        String method;
+
+        // as called directly, query string included, e.g. /api/v1/auth/users?fields=email
+        @NotBlank
+        String path;
+
+        JsonNode body;
+    }
+}
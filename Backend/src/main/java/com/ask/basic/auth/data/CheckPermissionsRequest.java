@@ -0,0 +1,35 @@
+package com.ask.basic.auth.data;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckPermissionsRequest {
+    @Valid
+    @NotEmpty
+    @Size(max = 100)
+    List<Check> checks;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Check {
+        @NotNull
+        Long userId;
+
+        @NotEmpty
+        @Size(max = 100)
+        List<String> permissions;
+    }
+}
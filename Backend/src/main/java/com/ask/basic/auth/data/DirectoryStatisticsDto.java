@@ -0,0 +1,37 @@
+package com.ask.basic.auth.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * User counts of the current tenant for the dashboard. {@code accountStatuses} has every
+ * {@code AccountStatus} plus {@code NONE} for users whose status was never set, and
+ * {@code countedAt} is when the counters were last recounted from the database.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DirectoryStatisticsDto {
+    private long users;
+    private long activeUsers;
+    private long inactiveUsers;
+    private Map<String, Long> accountStatuses;
+    private List<RoleUsers> roles;
+    private LocalDateTime countedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RoleUsers {
+        private Long id;
+        private String name;
+        private long users;
+    }
+}
@@ -0,0 +1,17 @@
+package com.ask.basic.auth.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EffectivePermissionsRebuild {
+    private String tenant;
+    private int deleted;
+    private int inserted;
+    private long elapsedMillis;
+}
@@ -0,0 +1,21 @@
+package com.ask.basic.auth.data;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntrospectTokensRequest {
+    // with or without the "Bearer " prefix
+    @NotEmpty
+    @Size(max = 100)
+    List<String> tokens;
+}
@@ -0,0 +1,20 @@
+package com.ask.basic.auth.data;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MergeRolesRequest {
+    // merged into the target, then deleted
+    @NotNull(message = "يجب أن يتم تحديد الرقم")
+    Long sourceId;
+
+    @NotNull(message = "يجب أن يتم تحديد الرقم")
+    Long targetId;
+}
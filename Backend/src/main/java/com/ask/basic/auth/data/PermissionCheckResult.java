@@ -0,0 +1,19 @@
+package com.ask.basic.auth.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Whether a user of the current tenant holds each permission asked for, in the order asked;
+ * wildcard grants count. An unknown user holds none.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermissionCheckResult {
+    private Long userId;
+    private Map<String, Boolean> permissions;
+}
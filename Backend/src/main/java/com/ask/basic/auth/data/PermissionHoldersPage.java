@@ -0,0 +1,27 @@
+package com.ask.basic.auth.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the users holding {@code permission}, or any permission of {@code group}, directly or
+ * through an ancestor role. Users are ordered by id; {@code total} counts all of them.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PermissionHoldersPage {
+    private String permission;
+    private String group;
+    private int page;
+    private int size;
+    private long total;
+    private List<UserView> users;
+}
@@ -0,0 +1,23 @@
+package com.ask.basic.auth.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rows affected by a clone, merge or delete: inserted for a clone and for what a merge moves to its
+ * target, deleted for a delete and for what a merge leaves behind on its source.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleOperationResult {
+    // the new role of a clone, the target of a merge, the deleted role
+    private Long roleId;
+    private int roles;
+    private int permissionLinks;
+    private int userLinks;
+    private int parentLinks;
+}
@@ -0,0 +1,37 @@
+package com.ask.basic.auth.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * What one token stands for. An inactive token only carries the {@code reason}, plus the subject
+ * and expiry when its signature could be checked.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenIntrospection {
+    private boolean active;
+    private Reason reason;
+    private String subject;
+    private String tenant;
+    private Long userId;
+    private Date issuedAt;
+    private Date expiresAt;
+    private List<String> authorities;
+
+    public enum Reason {
+        INVALID,
+        EXPIRED,
+        UNKNOWN_USER,
+        DISABLED_USER
+    }
+}
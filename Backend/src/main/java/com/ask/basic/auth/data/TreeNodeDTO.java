@@ -18,6 +18,9 @@ public class TreeNodeDTO {
     private String data;
     private String icon;
     private Boolean isPermission;
+    // permission nodes: granted through a parent role rather than attached to the role itself
+    private Boolean inherited;
+    private String inheritedFrom;
     private List<TreeNodeDTO> children;
 
 }
@@ -0,0 +1,24 @@
+package com.ask.basic.auth.data;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateRoleParentsRequest {
+    @NotNull(message = "يجب أن يتم تحديد الرقم")
+    Long id;
+
+    // the complete set of parents; an empty set removes them all
+    @NotNull
+    @Size(max = 20)
+    Set<Long> parentIds;
+}
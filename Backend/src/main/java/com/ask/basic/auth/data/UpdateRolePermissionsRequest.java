@@ -0,0 +1,33 @@
+package com.ask.basic.auth.data;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateRolePermissionsRequest {
+    @NotNull(message = "يجب أن يتم تحديد الرقم")
+    Long id;
+
+    @NotNull
+    Mode mode;
+
+    @NotNull(message = "يجب أن يتم تحديد الصلاحيات")
+    @Size(max = 1000)
+    Set<Long> permissionIds;
+
+    public enum Mode {
+        // the role ends up with exactly these permissions
+        REPLACE,
+        ADD,
+        REMOVE
+    }
+}
@@ -0,0 +1,52 @@
+package com.ask.basic.auth.data;
+
+import com.ask.basic.infrastructure.exceptions.ValidationException;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parsed {@code fields=} parameter of the user endpoints, e.g. {@code fields=firstName,lastName,email,roles}.
+ * Names are the user's JSON properties; {@code roles} adds the role ids and names and
+ * {@code roles.permissions} also their permissions. {@code id} is always selected.
+ */
+@Getter
+public class UserFields {
+
+    public static final List<String> COLUMNS = List.of(
+            "id", "title", "firstName", "middleName", "lastName", "displayName", "dateOfBirth", "maritalStatus",
+            "firstAddress", "secondAddress", "postalCode", "mobileNumber", "workNumber", "homeNumber",
+            "username", "email", "accountStatus", "createdAt", "updatedAt", "isActive");
+
+    private static final String ROLES = "roles";
+    private static final String PERMISSIONS = "roles.permissions";
+
+    private final Set<String> columns = new LinkedHashSet<>();
+    private boolean roles;
+    private boolean permissions;
+
+    private UserFields() {
+        columns.add("id");
+    }
+
+    public static UserFields parse(String fields) {
+        UserFields parsed = new UserFields();
+        for (String field : Arrays.stream(fields.split(",")).map(String::trim).filter(f -> !f.isEmpty()).toList()) {
+            if (COLUMNS.contains(field)) {
+                parsed.columns.add(field);
+            } else if (ROLES.equals(field)) {
+                parsed.roles = true;
+            } else if (PERMISSIONS.equals(field)) {
+                parsed.roles = true;
+                parsed.permissions = true;
+            } else {
+                throw new ValidationException("Unknown user field '" + field + "', expected one of "
+                        + COLUMNS + ", " + ROLES + " or " + PERMISSIONS, "INVALID_FIELDS");
+            }
+        }
+        return parsed;
+    }
+}
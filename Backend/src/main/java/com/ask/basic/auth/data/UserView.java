@@ -0,0 +1,71 @@
+package com.ask.basic.auth.data;
+
+import com.ask.basic.auth.domain.AccountStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A user carrying only the fields asked for with {@code fields=}; the rest stay null and are not written.
+ */
+@JsonSerialize
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserView {
+    private Long id;
+    private String title;
+    private String firstName;
+    private String middleName;
+    private String lastName;
+    private String displayName;
+    private LocalDateTime dateOfBirth;
+    private String maritalStatus;
+    private String firstAddress;
+    private String secondAddress;
+    private String postalCode;
+    private String mobileNumber;
+    private String workNumber;
+    private String homeNumber;
+    private String username;
+    private String email;
+    private AccountStatus accountStatus;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Boolean isActive;
+    private List<RoleDto> roles;
+
+    public void set(String field, Object value) {
+        switch (field) {
+            case "id" -> id = (Long) value;
+            case "title" -> title = (String) value;
+            case "firstName" -> firstName = (String) value;
+            case "middleName" -> middleName = (String) value;
+            case "lastName" -> lastName = (String) value;
+            case "displayName" -> displayName = (String) value;
+            case "dateOfBirth" -> dateOfBirth = (LocalDateTime) value;
+            case "maritalStatus" -> maritalStatus = (String) value;
+            case "firstAddress" -> firstAddress = (String) value;
+            case "secondAddress" -> secondAddress = (String) value;
+            case "postalCode" -> postalCode = (String) value;
+            case "mobileNumber" -> mobileNumber = (String) value;
+            case "workNumber" -> workNumber = (String) value;
+            case "homeNumber" -> homeNumber = (String) value;
+            case "username" -> username = (String) value;
+            case "email" -> email = (String) value;
+            case "accountStatus" -> accountStatus = (AccountStatus) value;
+            case "createdAt" -> createdAt = (LocalDateTime) value;
+            case "updatedAt" -> updatedAt = (LocalDateTime) value;
+            case "isActive" -> isActive = (Boolean) value;
+            default -> throw new IllegalArgumentException("Unknown user field " + field);
+        }
+    }
+}
@@ -18,6 +18,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Filter;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -46,7 +47,10 @@ public class Permission {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive;
 
+    // Permissions are shared by all tenants, roles are not: only the current tenant's roles are loaded.
+    // "_tenantId" is the filter Hibernate enables for @TenantId entities; loads by key ignore it (see PermissionRepository)
     @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.DETACH, CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH})
+    @Filter(name = "_tenantId", condition = "tenant_id = :tenantId")
     @JoinTable(name = "p_role_permission",
             joinColumns = @JoinColumn(name = "permission_id", referencedColumnName = "id"),
             inverseJoinColumns = @JoinColumn(name = "role_id", referencedColumnName = "id"))
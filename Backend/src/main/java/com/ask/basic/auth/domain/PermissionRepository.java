@@ -1,10 +1,29 @@
 package com.ask.basic.auth.domain;
 
 
+import com.ask.basic.auth.data.PermissionDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 public interface PermissionRepository extends JpaRepository<Permission, Long> {
     Set<Permission> findByRoles(Role role);
-}
\ No newline at end of file
+
+    // A load by key would fetch the roles of every tenant; a query applies the tenant filter to them
+    @Query("select p from p_permission p where p.id = :id")
+    Optional<Permission> findById(@Param("id") Long id);
+
+    // Projections, so the EAGER roles of each permission are not loaded along with it
+    @Query("select new com.ask.basic.auth.data.PermissionDto(p.id, p.groupName, p.name, p.isActive) " +
+            "from p_permission p where p.id in :ids")
+    List<PermissionDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.ask.basic.auth.data.PermissionDto(p.id, p.groupName, p.name, p.isActive) " +
+            "from p_permission p join p.roles r where r.id = :roleId")
+    List<PermissionDto> findDtosByRoleId(@Param("roleId") Long roleId);
+}
@@ -8,6 +8,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
@@ -16,6 +18,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.TenantId;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -26,7 +29,7 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "p_role")
-@Table(name = "p_role", uniqueConstraints = {@UniqueConstraint(name = "role_name_unique", columnNames = "name")})
+@Table(name = "p_role", uniqueConstraints = {@UniqueConstraint(name = "role_tenant_name_unique", columnNames = {"tenant_id", "name"})})
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Role {
     @Id
@@ -34,6 +37,11 @@ public class Role {
     @Column(name = "id", nullable = false)
     private Long id;
 
+    @JsonIgnore
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
     @Column(name = "name", nullable = false)
     private String name;
 
@@ -47,8 +55,19 @@ public class Role {
     @ManyToMany(mappedBy = "roles")
     private Set<User> users = new HashSet<>();
 
+    // Direct parents only; the transitive ancestors are kept in p_role_closure
+    @JsonIgnore
+    @ManyToMany
+    @JoinTable(name = "p_role_parent",
+            joinColumns = @JoinColumn(name = "role_id", referencedColumnName = "id"),
+            inverseJoinColumns = @JoinColumn(name = "parent_id", referencedColumnName = "id"))
+    @Builder.Default
+    private Set<Role> parents = new HashSet<>();
+
     public Role(String name, Boolean isActive) {
         this.name = name;
         this.isActive = isActive;
+        // @Builder.Default moves the initializer out of hand-written constructors
+        this.parents = new HashSet<>();
     }
 }
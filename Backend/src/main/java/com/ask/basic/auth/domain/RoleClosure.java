@@ -0,0 +1,54 @@
+package com.ask.basic.auth.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * One row per role and each of its ancestors through {@code p_role_parent}, the role itself
+ * excluded. {@code paths} counts the distinct parent chains between the two, so removing one
+ * edge only drops the rows no other chain still supports.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity(name = "p_role_closure")
+@Table(name = "p_role_closure", indexes = {@Index(name = "role_closure_descendant_idx", columnList = "descendant_id")})
+public class RoleClosure implements Persistable<RoleClosureId> {
+
+    @EmbeddedId
+    private RoleClosureId id;
+
+    @Column(name = "paths", nullable = false)
+    private long paths;
+
+    // the id is assigned, so save() cannot tell a new row from an existing one without this
+    @Transient
+    private boolean fresh;
+
+    public RoleClosure(RoleClosureId id, long paths) {
+        this.id = id;
+        this.paths = paths;
+        this.fresh = true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        this.fresh = false;
+    }
+}
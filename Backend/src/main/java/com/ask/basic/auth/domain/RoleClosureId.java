@@ -0,0 +1,24 @@
+package com.ask.basic.auth.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@Embeddable
+public class RoleClosureId implements Serializable {
+
+    @Column(name = "ancestor_id", nullable = false)
+    private Long ancestorId;
+
+    @Column(name = "descendant_id", nullable = false)
+    private Long descendantId;
+}
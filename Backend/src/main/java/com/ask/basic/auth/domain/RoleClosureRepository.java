@@ -0,0 +1,21 @@
+package com.ask.basic.auth.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RoleClosureRepository extends JpaRepository<RoleClosure, RoleClosureId> {
+
+    @Query("select c from p_role_closure c where c.id.descendantId in :roleIds")
+    List<RoleClosure> findAncestorsOf(@Param("roleIds") Collection<Long> roleIds);
+
+    @Query("select c from p_role_closure c where c.id.ancestorId = :roleId")
+    List<RoleClosure> findDescendantsOf(@Param("roleId") Long roleId);
+
+    @Query("select c from p_role_closure c where c.id.ancestorId in :ancestorIds and c.id.descendantId in :descendantIds")
+    List<RoleClosure> findBetween(@Param("ancestorIds") Collection<Long> ancestorIds,
+                                  @Param("descendantIds") Collection<Long> descendantIds);
+}
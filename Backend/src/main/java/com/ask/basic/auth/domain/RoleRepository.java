@@ -1,6 +1,19 @@
 package com.ask.basic.auth.domain;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role, Long> {
-}
\ No newline at end of file
+    // Loads by key skip the tenant restriction, a query does not
+    @Query("select r from p_role r where r.id = :id")
+    Optional<Role> findById(@Param("id") Long id);
+
+    boolean existsByName(String name);
+
+    @Query("select r from p_role r join r.parents p where p.id = :parentId")
+    List<Role> findChildren(@Param("parentId") Long parentId);
+}
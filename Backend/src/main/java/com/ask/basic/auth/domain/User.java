@@ -11,6 +11,8 @@ import com.ask.basic.auth.data.RoleDto;
 import jakarta.persistence.*;
 import lombok.*;
 
+import org.hibernate.annotations.TenantId;
+
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -26,7 +28,9 @@ import java.util.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "p_app_user")
-@Table(name = "p_app_user", uniqueConstraints = {@UniqueConstraint(name = "user_email_unique", columnNames = "email")})
+@Table(name = "p_app_user", uniqueConstraints = {
+        @UniqueConstraint(name = "user_tenant_email_unique", columnNames = {"tenant_id", "email"}),
+        @UniqueConstraint(name = "user_tenant_username_unique", columnNames = {"tenant_id", "username"})})
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class User implements UserDetails {
 
@@ -35,6 +39,12 @@ public class User implements UserDetails {
     @Column(name = "id")
     private Long id;
 
+    // School the user belongs to; set by Hibernate from the current tenant
+    @JsonIgnore
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
     // Personal Information
     @Column(name = "title")
     private String title;
@@ -77,10 +87,10 @@ public class User implements UserDetails {
     private String homeNumber; // changed to String
 
     // Credentials
-    @Column(name = "username", unique = true)
+    @Column(name = "username")
     private String username; // NEW (was missing)
 
-    @Column(name = "email", unique = true, nullable = false)
+    @Column(name = "email", nullable = false)
     private String email;
 
     @JsonIgnore
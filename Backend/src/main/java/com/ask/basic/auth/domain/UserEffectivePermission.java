@@ -0,0 +1,29 @@
+package com.ask.basic.auth.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Every permission a user holds through their roles and the ancestors of those roles, one row per
+ * pair. Mapped for the schema only: rows are written with SQL by {@code EffectivePermissionService}
+ * in the transaction of the change that affects them.
+ */
+@Getter
+@NoArgsConstructor
+@Entity(name = "user_effective_permission")
+@Table(name = "user_effective_permission", indexes = {
+        @Index(name = "user_effective_permission_permission_idx", columnList = "permission_id, user_id"),
+        @Index(name = "user_effective_permission_tenant_idx", columnList = "tenant_id")})
+public class UserEffectivePermission {
+
+    @EmbeddedId
+    private UserEffectivePermissionId id;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+}
@@ -0,0 +1,15 @@
+package com.ask.basic.auth.domain;
+
+import com.ask.basic.auth.data.UserFields;
+import com.ask.basic.auth.data.UserView;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface UserFieldsRepository {
+    // All users when userId is null
+    List<UserView> findUserViews(UserFields fields, Long userId);
+
+    // In id order, whatever the order of userIds
+    List<UserView> findUserViewsByIds(UserFields fields, Collection<Long> userIds);
+}
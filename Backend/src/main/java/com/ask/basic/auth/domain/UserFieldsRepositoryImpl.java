@@ -0,0 +1,121 @@
+package com.ask.basic.auth.domain;
+
+import com.ask.basic.auth.data.PermissionDto;
+import com.ask.basic.auth.data.RoleDto;
+import com.ask.basic.auth.data.UserFields;
+import com.ask.basic.auth.data.UserView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads users as tuples of the requested columns only, so no entity, eager role collection or
+ * unused column is loaded. Roles and permissions are one extra query each, and only when asked for.
+ */
+public class UserFieldsRepositoryImpl implements UserFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserView> findUserViews(UserFields fields, Long userId) {
+        return findUserViewsByIds(fields, userId != null ? List.of(userId) : null);
+    }
+
+    @Override
+    public List<UserView> findUserViewsByIds(UserFields fields, Collection<Long> userIds) {
+        if (userIds != null && userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.getColumns().size());
+        for (String column : fields.getColumns()) {
+            selections.add(user.get(column).alias(column));
+        }
+        query.multiselect(selections).orderBy(cb.asc(user.get("id")));
+        if (userIds != null) {
+            query.where(user.get("id").in(userIds));
+        }
+
+        Map<Long, UserView> views = new LinkedHashMap<>();
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            UserView view = new UserView();
+            for (String column : fields.getColumns()) {
+                view.set(column, row.get(column));
+            }
+            views.put(view.getId(), view);
+        }
+
+        if (fields.isRoles() && !views.isEmpty()) {
+            attachRoles(views, userIds, fields.isPermissions());
+        }
+        return new ArrayList<>(views.values());
+    }
+
+    private void attachRoles(Map<Long, UserView> views, Collection<Long> userIds, boolean withPermissions) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+        Join<User, Role> role = user.join("roles");
+        query.multiselect(user.get("id"), role.get("id"), role.get("name"));
+        if (userIds != null) {
+            query.where(user.get("id").in(userIds));
+        }
+
+        // Users share roles, so each role becomes one RoleDto referenced from every holder
+        Map<Long, RoleDto> roles = new HashMap<>();
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            UserView view = views.get(row.get(0, Long.class));
+            if (view == null) {
+                continue;
+            }
+            RoleDto roleDto = roles.computeIfAbsent(row.get(1, Long.class),
+                    id -> RoleDto.builder().id(id).name(row.get(2, String.class)).build());
+            if (view.getRoles() == null) {
+                view.setRoles(new ArrayList<>());
+            }
+            view.getRoles().add(roleDto);
+        }
+
+        if (withPermissions && !roles.isEmpty()) {
+            attachPermissions(roles);
+        }
+    }
+
+    private void attachPermissions(Map<Long, RoleDto> roles) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Permission> permission = query.from(Permission.class);
+        Join<Permission, Role> role = permission.join("roles");
+        query.multiselect(role.get("id"), permission.get("id"), permission.get("name"),
+                        permission.get("groupName"), permission.get("isActive"))
+                .where(role.get("id").in(roles.keySet()));
+
+        for (RoleDto roleDto : roles.values()) {
+            roleDto.setPermissions(new ArrayList<>());
+        }
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            roles.get(row.get(0, Long.class)).getPermissions().add(PermissionDto.builder()
+                    .id(row.get(1, Long.class))
+                    .name(row.get(2, String.class))
+                    .group(row.get(3, String.class))
+                    .isActive(row.get(4, Boolean.class))
+                    .build());
+        }
+    }
+}
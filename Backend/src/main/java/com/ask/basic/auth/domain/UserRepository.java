@@ -1,9 +1,18 @@
 package com.ask.basic.auth.domain;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserFieldsRepository {
+    // JwtFilter builds authorities outside any open session, so permissions must come with the user
+    @EntityGraph(attributePaths = {"roles", "roles.permissions"})
     Optional<User> findByEmail(String mail);
-}
\ No newline at end of file
+
+    // Loads by key skip the tenant restriction, a query does not
+    @Query("select u from p_app_user u where u.id = :id")
+    Optional<User> findById(@Param("id") Long id);
+}
@@ -6,8 +6,12 @@ import com.ask.basic.auth.request.LoginRequest;
 import com.ask.basic.auth.request.RegisterRequest;
 import com.ask.basic.auth.response.LoginResponse;
 import com.ask.basic.infrastructure.auth.JwtService;
+import com.ask.basic.infrastructure.directory.UserDirectory;
 import com.ask.basic.infrastructure.exceptions.GeneralRulePlatformException;
+import com.ask.basic.infrastructure.invalidation.InvalidationBus;
+import com.ask.basic.infrastructure.statistics.DirectoryStatistics;
 import lombok.Data;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,15 +19,20 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.List;
 
 @Data
 @RequiredArgsConstructor
 @Service
+@Timed(value = "auth.service", histogram = true)
 public class AuthWritePlatformServiceImpl implements AuthWritePlatformService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final DirectoryStatistics directoryStatistics;
+    private final UserDirectory userDirectory;
+    private final InvalidationBus invalidationBus;
 
     @Override
     public LoginResponse register(RegisterRequest request) {
@@ -43,7 +52,10 @@ public class AuthWritePlatformServiceImpl implements AuthWritePlatformService {
 
         String token = "Bearer " + jwtService.generateToken(user);
 
-        this.userRepository.save(user);
+        User saved = this.userRepository.save(user);
+        this.userDirectory.usersChanged(List.of(saved.getId()));
+        this.directoryStatistics.userAdded(user.getIsActive(), user.getAccountStatus());
+        this.invalidationBus.userChanged(saved.getId());
         return LoginResponse.builder()
                 .token(token)
                 .build();
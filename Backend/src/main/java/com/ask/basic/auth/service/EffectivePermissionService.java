@@ -0,0 +1,19 @@
+package com.ask.basic.auth.service;
+
+import com.ask.basic.auth.data.EffectivePermissionsRebuild;
+import com.ask.basic.auth.data.PermissionDto;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EffectivePermissionService {
+    // users holding the role or one of its descendants
+    List<Long> holdersOf(Long roleId);
+    void refresh(Collection<Long> userIds);
+    void granted(Long roleId, Collection<Long> permissionIds);
+    void revoked(Long roleId, Collection<Long> permissionIds);
+    Collection<? extends GrantedAuthority> getAuthorities(Long userId);
+    List<PermissionDto> getPermissions(Long userId);
+    EffectivePermissionsRebuild rebuild(String tenant);
+}
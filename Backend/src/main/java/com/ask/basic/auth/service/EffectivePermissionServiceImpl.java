@@ -0,0 +1,201 @@
+package com.ask.basic.auth.service;
+
+import com.ask.basic.auth.data.EffectivePermissionsRebuild;
+import com.ask.basic.auth.data.PermissionDto;
+import com.ask.basic.infrastructure.tenancy.TenancyConfig;
+import com.ask.basic.infrastructure.tenancy.TenantIdentifierResolver;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps {@code user_effective_permission} equal to what {@code p_user_role}, {@code p_role_permission}
+ * and {@code p_role_closure} imply. Permission edits on a role insert or delete just the affected
+ * pairs with one statement per permission; changes to who holds a role or to the hierarchy recompute
+ * the affected users. Apart from a rebuild, nothing here opens a transaction of its own, so every
+ * call commits or rolls back with the change that caused it. Authorities are cached per tenant and
+ * user, and evicted once the change that affects them commits. Pairs of deactivated permissions are
+ * kept, so reactivating one needs no rebuild, but they grant no authority.
+ */
+@Log4j2
+@Service
+@Timed(value = "auth.service", histogram = true)
+@RequiredArgsConstructor
+public class EffectivePermissionServiceImpl implements EffectivePermissionService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantIdentifierResolver tenantIdentifierResolver;
+    private final CacheManager cacheManager;
+
+    private static final int USERS_PER_STATEMENT = 500;
+
+    // The user-role link is to the role or to one of its descendants
+    private static final String HOLDS_ROLE =
+            "(ur.role_id = ? or ur.role_id in (select c.descendant_id from p_role_closure c where c.ancestor_id = ?))";
+
+    // Every (user, permission) pair: granted by a role of the user, or by an ancestor of one; %1$s filters the users
+    private static final String INSERT_PAIRS = "insert into user_effective_permission (user_id, permission_id, tenant_id) " +
+            "select ur.user_id, rp.permission_id, r.tenant_id from p_user_role ur join p_role r on r.id = ur.role_id " +
+            "join p_role_permission rp on rp.role_id = ur.role_id where %1$s " +
+            "union " +
+            "select ur.user_id, rp.permission_id, r.tenant_id from p_user_role ur join p_role r on r.id = ur.role_id " +
+            "join p_role_closure c on c.descendant_id = ur.role_id join p_role_permission rp on rp.role_id = c.ancestor_id where %1$s";
+
+    private static final String GRANT = "insert into user_effective_permission (user_id, permission_id, tenant_id) " +
+            "select distinct ur.user_id, ?, r.tenant_id from p_user_role ur join p_role r on r.id = ur.role_id " +
+            "where " + HOLDS_ROLE + " " +
+            "and not exists (select 1 from user_effective_permission e where e.user_id = ur.user_id and e.permission_id = ?)";
+
+    // Only the pairs no other role of the user still grants
+    private static final String REVOKE = "delete from user_effective_permission where permission_id = ? " +
+            "and user_id in (select ur.user_id from p_user_role ur where " + HOLDS_ROLE + ") " +
+            "and not exists (select 1 from p_user_role ur join p_role_permission rp on rp.role_id = ur.role_id " +
+            "where ur.user_id = user_effective_permission.user_id and rp.permission_id = user_effective_permission.permission_id) " +
+            "and not exists (select 1 from p_user_role ur join p_role_closure c on c.descendant_id = ur.role_id " +
+            "join p_role_permission rp on rp.role_id = c.ancestor_id " +
+            "where ur.user_id = user_effective_permission.user_id and rp.permission_id = user_effective_permission.permission_id)";
+
+    @Override
+    public List<Long> holdersOf(Long roleId) {
+        return this.jdbcTemplate.queryForList("select distinct ur.user_id from p_user_role ur where " + HOLDS_ROLE,
+                Long.class, roleId, roleId);
+    }
+
+    @Override
+    public void refresh(Collection<Long> userIds) {
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += USERS_PER_STATEMENT) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + USERS_PER_STATEMENT));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            this.jdbcTemplate.update("delete from user_effective_permission where user_id in (" + placeholders + ")", chunk.toArray());
+
+            List<Long> args = new ArrayList<>(chunk);
+            args.addAll(chunk);
+            this.jdbcTemplate.update(INSERT_PAIRS.formatted("ur.user_id in (" + placeholders + ")"), args.toArray());
+        }
+        evictAfterCommit(ids);
+    }
+
+    @Override
+    public void granted(Long roleId, Collection<Long> permissionIds) {
+        if (!permissionIds.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(GRANT, permissionIds, permissionIds.size(), (ps, permissionId) -> {
+                ps.setLong(1, permissionId);
+                ps.setLong(2, roleId);
+                ps.setLong(3, roleId);
+                ps.setLong(4, permissionId);
+            });
+            evictAfterCommit(null);
+        }
+    }
+
+    @Override
+    public void revoked(Long roleId, Collection<Long> permissionIds) {
+        if (!permissionIds.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(REVOKE, permissionIds, permissionIds.size(), (ps, permissionId) -> {
+                ps.setLong(1, permissionId);
+                ps.setLong(2, roleId);
+                ps.setLong(3, roleId);
+            });
+            evictAfterCommit(null);
+        }
+    }
+
+    @Override
+    @Cacheable(cacheNames = TenancyConfig.USER_AUTHORITIES_CACHE, key = "#userId")
+    public Collection<? extends GrantedAuthority> getAuthorities(Long userId) {
+        return List.copyOf(this.jdbcTemplate.query("select p.name from user_effective_permission e " +
+                        "join p_permission p on p.id = e.permission_id where e.user_id = ? and e.tenant_id = ? " +
+                        "and p.is_active = true",
+                (rs, i) -> new SimpleGrantedAuthority(rs.getString(1)),
+                userId, this.tenantIdentifierResolver.resolveCurrentTenantIdentifier()));
+    }
+
+    @Override
+    public List<PermissionDto> getPermissions(Long userId) {
+        return this.jdbcTemplate.query("select p.id, p.group_name, p.name, p.is_active from user_effective_permission e " +
+                        "join p_permission p on p.id = e.permission_id where e.user_id = ? and e.tenant_id = ? " +
+                        "order by p.group_name, p.name",
+                (rs, i) -> new PermissionDto(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getBoolean(4)),
+                userId, this.tenantIdentifierResolver.resolveCurrentTenantIdentifier());
+    }
+
+    // A null tenant rebuilds every tenant
+    @Override
+    @Transactional
+    public EffectivePermissionsRebuild rebuild(String tenant) {
+        long started = System.currentTimeMillis();
+        int deleted;
+        int inserted;
+        if (tenant == null) {
+            deleted = this.jdbcTemplate.update("delete from user_effective_permission");
+            inserted = this.jdbcTemplate.update(INSERT_PAIRS.formatted("1 = 1"));
+        } else {
+            deleted = this.jdbcTemplate.update("delete from user_effective_permission where tenant_id = ?", tenant);
+            inserted = this.jdbcTemplate.update(INSERT_PAIRS.formatted("r.tenant_id = ?"), tenant, tenant);
+        }
+        evictAfterCommit(null);
+        EffectivePermissionsRebuild rebuild = EffectivePermissionsRebuild.builder()
+                .tenant(tenant)
+                .deleted(deleted)
+                .inserted(inserted)
+                .elapsedMillis(System.currentTimeMillis() - started)
+                .build();
+        log.info("Effective permissions of {} rebuilt in {} ms: {} rows deleted, {} inserted",
+                tenant != null ? "tenant '" + tenant + "'" : "all tenants", rebuild.getElapsedMillis(), deleted, inserted);
+        return rebuild;
+    }
+
+    // After commit, so a request racing the change cannot cache the authorities it replaced; null evicts every user
+    private void evictAfterCommit(Collection<Long> userIds) {
+        Runnable evict = () -> {
+            Cache cache = this.cacheManager.getCache(TenancyConfig.USER_AUTHORITIES_CACHE);
+            if (cache == null) {
+                return;
+            }
+            if (userIds == null) {
+                cache.clear();
+            } else {
+                userIds.forEach(cache::evict);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    // The table is new to existing databases: fill it once rather than leave every user without permissions
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Boolean empty = this.jdbcTemplate.queryForObject("select not exists (select 1 from user_effective_permission)", Boolean.class);
+        Boolean linked = this.jdbcTemplate.queryForObject("select exists (select 1 from p_user_role)", Boolean.class);
+        if (Boolean.TRUE.equals(empty) && Boolean.TRUE.equals(linked)) {
+            rebuild(null);
+        }
+    }
+}
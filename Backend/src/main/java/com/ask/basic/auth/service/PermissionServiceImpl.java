@@ -3,7 +3,10 @@ package com.ask.basic.auth.service;
 import com.ask.basic.auth.data.TreeNodeDTO;
 import com.ask.basic.auth.domain.Permission;
 import com.ask.basic.auth.domain.PermissionRepository;
+import com.ask.basic.infrastructure.tenancy.TenancyConfig;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -12,12 +15,14 @@ import java.util.Random;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "auth.service", histogram = true)
 @RequiredArgsConstructor
 public class PermissionServiceImpl implements PermissionService {
 
     private final PermissionRepository permissionRepository;
 
     @Override
+    @Cacheable(TenancyConfig.PERMISSIONS_GROUPED_CACHE)
     public List<TreeNodeDTO> getPermissionsGroupedByGroupName() {
         List<TreeNodeDTO> result = new ArrayList<>();
         List<Permission> permissions = this.permissionRepository.findAll();
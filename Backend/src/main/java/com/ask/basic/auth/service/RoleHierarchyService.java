@@ -0,0 +1,12 @@
+package com.ask.basic.auth.service;
+
+import com.ask.basic.auth.data.UpdateRoleParentsRequest;
+import com.ask.basic.auth.domain.Role;
+
+public interface RoleHierarchyService {
+    Role updateRoleParents(UpdateRoleParentsRequest request);
+    // returns the number of parent links removed
+    int detach(Role role);
+    // the children of source become children of target; returns the number of links moved
+    int transferChildren(Role source, Role target);
+}
@@ -0,0 +1,165 @@
+package com.ask.basic.auth.service;
+
+import com.ask.basic.auth.data.UpdateRoleParentsRequest;
+import com.ask.basic.auth.domain.Role;
+import com.ask.basic.auth.domain.RoleClosure;
+import com.ask.basic.auth.domain.RoleClosureId;
+import com.ask.basic.auth.domain.RoleClosureRepository;
+import com.ask.basic.auth.domain.RoleRepository;
+import com.ask.basic.infrastructure.authorization.PermissionHolderIndex;
+import com.ask.basic.infrastructure.exceptions.NotFoundException;
+import com.ask.basic.infrastructure.exceptions.ValidationException;
+import com.ask.basic.infrastructure.invalidation.InvalidationBus;
+import com.ask.basic.infrastructure.tenancy.TenancyConfig;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Keeps {@code p_role_closure} in step with {@code p_role_parent}. Adding or removing the edge
+ * child -> parent changes the path count of every (ancestor of parent, descendant of child) pair,
+ * both sides including the two roles themselves, so each change touches only the affected rows.
+ */
+@Service
+@Timed(value = "auth.service", histogram = true)
+@RequiredArgsConstructor
+public class RoleHierarchyServiceImpl implements RoleHierarchyService {
+
+    private final RoleRepository roleRepository;
+    private final RoleClosureRepository roleClosureRepository;
+    private final PermissionHolderIndex permissionHolderIndex;
+    private final EffectivePermissionService effectivePermissionService;
+    private final InvalidationBus invalidationBus;
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = {TenancyConfig.ROLES_TREE_CACHE, TenancyConfig.ROLES_GROUPED_TREE_CACHE}, allEntries = true)
+    public Role updateRoleParents(UpdateRoleParentsRequest request) {
+        Role role = this.roleRepository.findById(request.getId())
+                .orElseThrow(() -> new NotFoundException("role", request.getId()));
+
+        Set<Long> requested = new HashSet<>(request.getParentIds());
+        List<Role> parents = this.roleRepository.findAllById(requested);
+        if (parents.size() != requested.size()) {
+            parents.forEach(parent -> requested.remove(parent.getId()));
+            throw new NotFoundException("role", requested.iterator().next());
+        }
+
+        // removals first, so replacing a parent by one of its descendants is not taken for a cycle
+        for (Role parent : new ArrayList<>(role.getParents())) {
+            if (!requested.contains(parent.getId())) {
+                removeParent(role, parent);
+            }
+        }
+        Set<Long> current = new HashSet<>();
+        role.getParents().forEach(parent -> current.add(parent.getId()));
+        for (Role parent : parents) {
+            if (!current.contains(parent.getId())) {
+                addParent(role, parent);
+            }
+        }
+        // the closure is read by plain SQL below, so it has to be written first
+        this.roleClosureRepository.flush();
+        this.effectivePermissionService.refresh(this.effectivePermissionService.holdersOf(role.getId()));
+        this.permissionHolderIndex.hierarchyChanged();
+        this.invalidationBus.roleChanged(role.getId());
+        return role;
+    }
+
+    @Override
+    @Transactional
+    public int detach(Role role) {
+        int removed = 0;
+        for (Role parent : new ArrayList<>(role.getParents())) {
+            removeParent(role, parent);
+            removed++;
+        }
+        for (Role child : this.roleRepository.findChildren(role.getId())) {
+            removeParent(child, role);
+            removed++;
+        }
+        if (removed > 0) {
+            this.permissionHolderIndex.hierarchyChanged();
+        }
+        return removed;
+    }
+
+    @Override
+    @Transactional
+    public int transferChildren(Role source, Role target) {
+        int moved = 0;
+        List<Role> children = this.roleRepository.findChildren(source.getId());
+        for (Role child : children) {
+            removeParent(child, source);
+            boolean hasTarget = child.getParents().stream().anyMatch(parent -> parent.getId().equals(target.getId()));
+            if (!child.getId().equals(target.getId()) && !hasTarget) {
+                addParent(child, target);
+                moved++;
+            }
+        }
+        if (!children.isEmpty()) {
+            this.permissionHolderIndex.hierarchyChanged();
+        }
+        return moved;
+    }
+
+    private void addParent(Role role, Role parent) {
+        if (role.getId().equals(parent.getId())) {
+            throw new ValidationException("Role '" + role.getName() + "' cannot be its own parent", "ROLE_CYCLE");
+        }
+        // a cycle would appear if the new parent already inherits from the role
+        if (this.roleClosureRepository.existsById(new RoleClosureId(role.getId(), parent.getId()))) {
+            throw new ValidationException("Role '" + parent.getName() + "' already inherits from '" + role.getName() + "'", "ROLE_CYCLE");
+        }
+        adjustPaths(role.getId(), parent.getId(), 1);
+        role.getParents().add(parent);
+    }
+
+    private void removeParent(Role role, Role parent) {
+        adjustPaths(role.getId(), parent.getId(), -1);
+        role.getParents().removeIf(p -> p.getId().equals(parent.getId()));
+    }
+
+    private void adjustPaths(Long childId, Long parentId, long sign) {
+        // paths from each ancestor down to the parent, and from the child down to each descendant
+        Map<Long, Long> above = new HashMap<>();
+        above.put(parentId, 1L);
+        for (RoleClosure row : this.roleClosureRepository.findAncestorsOf(List.of(parentId))) {
+            above.put(row.getId().getAncestorId(), row.getPaths());
+        }
+        Map<Long, Long> below = new HashMap<>();
+        below.put(childId, 1L);
+        for (RoleClosure row : this.roleClosureRepository.findDescendantsOf(childId)) {
+            below.put(row.getId().getDescendantId(), row.getPaths());
+        }
+
+        Map<RoleClosureId, RoleClosure> existing = new HashMap<>();
+        for (RoleClosure row : this.roleClosureRepository.findBetween(above.keySet(), below.keySet())) {
+            existing.put(row.getId(), row);
+        }
+
+        List<RoleClosure> changed = new ArrayList<>();
+        List<RoleClosure> removed = new ArrayList<>();
+        above.forEach((ancestorId, pathsAbove) -> below.forEach((descendantId, pathsBelow) -> {
+            RoleClosureId id = new RoleClosureId(ancestorId, descendantId);
+            long delta = sign * pathsAbove * pathsBelow;
+            RoleClosure row = existing.get(id);
+            if (row == null) {
+                if (delta > 0) {
+                    changed.add(new RoleClosure(id, delta));
+                }
+            } else if (row.getPaths() + delta <= 0) {
+                removed.add(row);
+            } else {
+                row.setPaths(row.getPaths() + delta);
+                changed.add(row);
+            }
+        }));
+        this.roleClosureRepository.saveAll(changed);
+        this.roleClosureRepository.deleteAll(removed);
+    }
+}
@@ -1,16 +1,24 @@
 package com.ask.basic.auth.service;
 
+import com.ask.basic.auth.data.CloneRoleRequest;
 import com.ask.basic.auth.data.CreateRoleRequest;
+import com.ask.basic.auth.data.MergeRolesRequest;
+import com.ask.basic.auth.data.RoleDto;
+import com.ask.basic.auth.data.RoleOperationResult;
 import com.ask.basic.auth.data.TreeNodeDTO;
+import com.ask.basic.auth.data.UpdateRolePermissionsRequest;
 import com.ask.basic.auth.data.UpdateRoleRequest;
 import com.ask.basic.auth.domain.Role;
 
 import java.util.List;
 
 public interface RoleService {
-    Role createRole(CreateRoleRequest request);
+    RoleDto createRole(CreateRoleRequest request);
+    RoleDto updateRolePermissions(UpdateRolePermissionsRequest request);
     Role updateRoleName(UpdateRoleRequest request);
-    Role deleteRole(Long roleId);
+    RoleOperationResult deleteRole(Long roleId);
+    RoleOperationResult cloneRole(CloneRoleRequest request);
+    RoleOperationResult mergeRoles(MergeRolesRequest request);
     List<TreeNodeDTO> getRolesWithPermissionsTree();
     List<TreeNodeDTO> getRolesWithPermissionsGroupedByGroupNameTree();
 }
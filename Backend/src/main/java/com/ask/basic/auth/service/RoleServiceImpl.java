@@ -1,40 +1,84 @@
 package com.ask.basic.auth.service;
 
+import com.ask.basic.auth.data.CloneRoleRequest;
 import com.ask.basic.auth.data.CreateRoleRequest;
+import com.ask.basic.auth.data.MergeRolesRequest;
+import com.ask.basic.auth.data.PermissionDto;
+import com.ask.basic.auth.data.RoleDto;
+import com.ask.basic.auth.data.RoleOperationResult;
 import com.ask.basic.auth.data.TreeNodeDTO;
+import com.ask.basic.auth.data.UpdateRolePermissionsRequest;
 import com.ask.basic.auth.data.UpdateRoleRequest;
 import com.ask.basic.auth.domain.Permission;
 import com.ask.basic.auth.domain.PermissionRepository;
 import com.ask.basic.auth.domain.Role;
+import com.ask.basic.auth.domain.RoleClosure;
+import com.ask.basic.auth.domain.RoleClosureRepository;
 import com.ask.basic.auth.domain.RoleRepository;
+import com.ask.basic.infrastructure.authorization.PermissionHolderIndex;
+import com.ask.basic.infrastructure.directory.UserDirectory;
+import com.ask.basic.infrastructure.exceptions.DuplicateResourceException;
 import com.ask.basic.infrastructure.exceptions.NotFoundException;
+import com.ask.basic.infrastructure.exceptions.ValidationException;
+import com.ask.basic.infrastructure.invalidation.InvalidationBus;
+import com.ask.basic.infrastructure.statistics.DirectoryStatistics;
+import com.ask.basic.infrastructure.tenancy.TenancyConfig;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "auth.service", histogram = true)
 @RequiredArgsConstructor
 public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final RoleClosureRepository roleClosureRepository;
+    private final RoleHierarchyService roleHierarchyService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PermissionHolderIndex permissionHolderIndex;
+    private final EffectivePermissionService effectivePermissionService;
+    private final DirectoryStatistics directoryStatistics;
+    private final UserDirectory userDirectory;
+    private final InvalidationBus invalidationBus;
 
-    @Override
-    public Role createRole(CreateRoleRequest createRoleRequest) {
-        Role role = new Role(createRoleRequest.getName(), true);
+    // p_role_permission is owned by Permission.roles; set edits go past the entity graph
+    private static final String INSERT_ROLE_PERMISSION =
+            "insert into p_role_permission (permission_id, role_id) values (?, ?)";
+    private static final String DELETE_ROLE_PERMISSION =
+            "delete from p_role_permission where permission_id = ? and role_id = ?";
+    private static final String COPY_PERMISSION_LINKS =
+            "insert into p_role_permission (permission_id, role_id) select permission_id, ? from p_role_permission where role_id = ?";
+    private static final String COPY_PARENT_LINKS =
+            "insert into p_role_parent (role_id, parent_id) select ?, parent_id from p_role_parent where role_id = ?";
+    private static final String COPY_ANCESTORS =
+            "insert into p_role_closure (ancestor_id, descendant_id, paths) select ancestor_id, ?, paths from p_role_closure where descendant_id = ?";
+    // the links of the source the target does not have yet
+    private static final String MOVE_PERMISSION_LINKS =
+            "insert into p_role_permission (permission_id, role_id) select s.permission_id, ? from p_role_permission s " +
+            "where s.role_id = ? and not exists (select 1 from p_role_permission t where t.role_id = ? and t.permission_id = s.permission_id)";
+    private static final String MOVE_USER_LINKS =
+            "insert into p_user_role (user_id, role_id) select s.user_id, ? from p_user_role s " +
+            "where s.role_id = ? and not exists (select 1 from p_user_role t where t.role_id = ? and t.user_id = s.user_id)";
 
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = {TenancyConfig.ROLES_TREE_CACHE, TenancyConfig.ROLES_GROUPED_TREE_CACHE}, allEntries = true)
+    public RoleDto createRole(CreateRoleRequest createRoleRequest) {
+        Set<Long> permissionIds = new HashSet<>();
         if (createRoleRequest.getPermissions() != null) {
             createRoleRequest.getPermissions().forEach(permission -> {
                 if (permission != null && permission.getId() != null) {
                     try {
-                        Long permissionId = Long.parseLong(permission.getId());
-                        Permission permission1 = this.permissionRepository.findById(permissionId)
-                                .orElseThrow(() -> new NotFoundException("permission", permissionId));
-                        role.getPermissions().add(permission1);
-                        permission1.getRoles().add(role);
-                        permissionRepository.save(permission1);
+                        permissionIds.add(Long.parseLong(permission.getId()));
                     } catch (NumberFormatException e) {
                         throw new IllegalArgumentException("Invalid permission ID format: " + permission.getId());
                     }
@@ -42,30 +86,137 @@ public class RoleServiceImpl implements RoleService {
             });
         }
 
-        return this.roleRepository.save(role);
+        Role role = this.roleRepository.save(new Role(createRoleRequest.getName(), true));
+        this.directoryStatistics.roleChanged(role.getId());
+        this.invalidationBus.roleChanged(role.getId());
+        return applyPermissions(role, UpdateRolePermissionsRequest.Mode.REPLACE, permissionIds);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = {TenancyConfig.ROLES_TREE_CACHE, TenancyConfig.ROLES_GROUPED_TREE_CACHE}, allEntries = true)
+    public RoleDto updateRolePermissions(UpdateRolePermissionsRequest request) {
+        Role role = this.roleRepository.findById(request.getId())
+                .orElseThrow(() -> new NotFoundException("role", request.getId()));
+        return applyPermissions(role, request.getMode(), request.getPermissionIds());
     }
 
     @Override
+    @CacheEvict(cacheNames = {TenancyConfig.ROLES_TREE_CACHE, TenancyConfig.ROLES_GROUPED_TREE_CACHE}, allEntries = true)
     public Role updateRoleName(UpdateRoleRequest updateRoleRequest) {
         Role role = this.roleRepository.findById(updateRoleRequest.getId())
                 .orElseThrow(() -> new NotFoundException("role", updateRoleRequest.getId()));
         role.setName(updateRoleRequest.getName());
-        return this.roleRepository.save(role);
+        Role saved = this.roleRepository.save(role);
+        this.directoryStatistics.roleChanged(saved.getId());
+        this.invalidationBus.roleChanged(saved.getId());
+        return saved;
     }
 
     @Override
-    public Role deleteRole(Long roleId) {
+    @Transactional
+    @CacheEvict(cacheNames = {TenancyConfig.ROLES_TREE_CACHE, TenancyConfig.ROLES_GROUPED_TREE_CACHE}, allEntries = true)
+    public RoleOperationResult deleteRole(Long roleId) {
         if (roleId == null) {
             throw new IllegalArgumentException("Role ID cannot be null");
         }
 
         Role role = this.roleRepository.findById(roleId)
                 .orElseThrow(() -> new NotFoundException("role", roleId));
-        this.roleRepository.delete(role);
-        return role;
+        // who loses something is only known while the links still exist
+        List<Long> holders = this.effectivePermissionService.holdersOf(roleId);
+        int parentLinks = this.roleHierarchyService.detach(role);
+        // the statements below bypass the session, so the closure changes must reach the database first
+        this.roleRepository.flush();
+        RoleOperationResult result = deleteLinksAndRole(role).parentLinks(parentLinks).build();
+        this.effectivePermissionService.refresh(holders);
+        this.permissionHolderIndex.roleChanged(roleId);
+        this.directoryStatistics.roleChanged(roleId);
+        this.userDirectory.roleRemoved(roleId, null);
+        this.invalidationBus.roleChanged(roleId);
+        return result;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = {TenancyConfig.ROLES_TREE_CACHE, TenancyConfig.ROLES_GROUPED_TREE_CACHE}, allEntries = true)
+    public RoleOperationResult cloneRole(CloneRoleRequest request) {
+        Role source = this.roleRepository.findById(request.getId())
+                .orElseThrow(() -> new NotFoundException("role", request.getId()));
+        if (this.roleRepository.existsByName(request.getName())) {
+            throw new DuplicateResourceException("Role '" + request.getName() + "' already exists");
+        }
+
+        Role clone = this.roleRepository.save(new Role(request.getName(), source.getIsActive()));
+        int permissionLinks = this.jdbcTemplate.update(COPY_PERMISSION_LINKS, clone.getId(), source.getId());
+        int parentLinks = this.jdbcTemplate.update(COPY_PARENT_LINKS, clone.getId(), source.getId());
+        // a new role has no descendants, so its ancestors are exactly those of the source
+        this.jdbcTemplate.update(COPY_ANCESTORS, clone.getId(), source.getId());
+        this.permissionHolderIndex.roleChanged(clone.getId());
+        this.directoryStatistics.roleChanged(clone.getId());
+        this.invalidationBus.roleChanged(clone.getId());
+        if (parentLinks > 0) {
+            this.permissionHolderIndex.hierarchyChanged();
+        }
+        return RoleOperationResult.builder()
+                .roleId(clone.getId())
+                .roles(1)
+                .permissionLinks(permissionLinks)
+                .parentLinks(parentLinks)
+                .build();
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = {TenancyConfig.ROLES_TREE_CACHE, TenancyConfig.ROLES_GROUPED_TREE_CACHE}, allEntries = true)
+    public RoleOperationResult mergeRoles(MergeRolesRequest request) {
+        if (request.getSourceId().equals(request.getTargetId())) {
+            throw new ValidationException("A role cannot be merged into itself", "ROLE_MERGE");
+        }
+        Role source = this.roleRepository.findById(request.getSourceId())
+                .orElseThrow(() -> new NotFoundException("role", request.getSourceId()));
+        Role target = this.roleRepository.findById(request.getTargetId())
+                .orElseThrow(() -> new NotFoundException("role", request.getTargetId()));
+
+        int parentLinks = this.roleHierarchyService.transferChildren(source, target);
+        this.roleHierarchyService.detach(source);
+        this.roleRepository.flush();
+
+        int permissionLinks = this.jdbcTemplate.update(MOVE_PERMISSION_LINKS, target.getId(), source.getId(), target.getId());
+        int userLinks = this.jdbcTemplate.update(MOVE_USER_LINKS, target.getId(), source.getId(), target.getId());
+        deleteLinksAndRole(source);
+        // the users of the source and its former children now all hold the target or a descendant of it
+        this.effectivePermissionService.refresh(this.effectivePermissionService.holdersOf(target.getId()));
+        this.permissionHolderIndex.roleChanged(source.getId());
+        this.permissionHolderIndex.roleChanged(target.getId());
+        this.directoryStatistics.roleChanged(source.getId());
+        this.directoryStatistics.roleChanged(target.getId());
+        this.userDirectory.roleRemoved(source.getId(), target.getId());
+        this.invalidationBus.roleChanged(source.getId());
+        this.invalidationBus.roleChanged(target.getId());
+        return RoleOperationResult.builder()
+                .roleId(target.getId())
+                .roles(1)
+                .permissionLinks(permissionLinks)
+                .userLinks(userLinks)
+                .parentLinks(parentLinks)
+                .build();
+    }
+
+    // Plain statements on the link tables: nothing is loaded, whatever the number of users holding the role
+    private RoleOperationResult.RoleOperationResultBuilder deleteLinksAndRole(Role role) {
+        int permissionLinks = this.jdbcTemplate.update("delete from p_role_permission where role_id = ?", role.getId());
+        int userLinks = this.jdbcTemplate.update("delete from p_user_role where role_id = ?", role.getId());
+        int roles = this.jdbcTemplate.update("delete from p_role where id = ? and tenant_id = ?", role.getId(), role.getTenantId());
+        return RoleOperationResult.builder()
+                .roleId(role.getId())
+                .roles(roles)
+                .permissionLinks(permissionLinks)
+                .userLinks(userLinks);
+    }
+
+    @Override
+    @Cacheable(TenancyConfig.ROLES_TREE_CACHE)
     public List<TreeNodeDTO> getRolesWithPermissionsTree() {
         List<TreeNodeDTO> result = new ArrayList<>();
         List<Role> roles = this.roleRepository.findAll();
@@ -79,6 +230,11 @@ public class RoleServiceImpl implements RoleService {
 
             Set<Permission> permissions = this.permissionRepository.findByRoles(role);
             role.setPermissions(permissions != null ? permissions : new HashSet<>());
+        }
+        Map<Long, List<Role>> ancestors = ancestorsByRole(roles);
+
+        for (Role role : roles) {
+            if (role == null) continue;
 
             TreeNodeDTO treeNodeDTO = TreeNodeDTO.builder()
                     .id(role.getId() != null ? role.getId().toString() : null)
@@ -87,17 +243,16 @@ public class RoleServiceImpl implements RoleService {
                     .children(new ArrayList<>())
                     .build();
 
-            if (role.getPermissions() != null) {
-                for (Permission permission : role.getPermissions()) {
-                    if (permission != null) {
-                        TreeNodeDTO permissionTreeNodeDTO = TreeNodeDTO.builder()
-                                .id(permission.getId() != null ? permission.getId().toString() : null)
-                                .key(permission.getId() != null ? permission.getId().toString() + new Random().nextInt() : String.valueOf(new Random().nextInt()))
-                                .label(permission.getName() != null ? permission.getName() : "Unknown Permission")
-                                .build();
-                        treeNodeDTO.getChildren().add(permissionTreeNodeDTO);
-                    }
-                }
+            for (GrantedPermission granted : grantedPermissions(role, ancestors)) {
+                Permission permission = granted.permission();
+                TreeNodeDTO permissionTreeNodeDTO = TreeNodeDTO.builder()
+                        .id(permission.getId() != null ? permission.getId().toString() : null)
+                        .key(permission.getId() != null ? permission.getId().toString() + new Random().nextInt() : String.valueOf(new Random().nextInt()))
+                        .label(permission.getName() != null ? permission.getName() : "Unknown Permission")
+                        .inherited(granted.isInherited())
+                        .inheritedFrom(granted.isInherited() ? granted.source().getName() : null)
+                        .build();
+                treeNodeDTO.getChildren().add(permissionTreeNodeDTO);
             }
             result.add(treeNodeDTO);
         }
@@ -106,6 +261,7 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
+    @Cacheable(TenancyConfig.ROLES_GROUPED_TREE_CACHE)
     public List<TreeNodeDTO> getRolesWithPermissionsGroupedByGroupNameTree() {
         List<TreeNodeDTO> result = new ArrayList<>();
         List<Role> roles = this.roleRepository.findAll();
@@ -120,6 +276,7 @@ public class RoleServiceImpl implements RoleService {
             Set<Permission> permissions = this.permissionRepository.findByRoles(role);
             role.setPermissions(permissions != null ? permissions : new HashSet<>());
         }
+        Map<Long, List<Role>> ancestors = ancestorsByRole(roles);
 
         for (Role role : roles) {
             if (role == null || role.getPermissions() == null) continue;
@@ -131,10 +288,9 @@ public class RoleServiceImpl implements RoleService {
                     .children(new ArrayList<>())
                     .build();
 
-            role.getPermissions().stream()
-                    .filter(permission -> permission != null)
-                    .collect(Collectors.groupingBy(permission ->
-                        permission.getGroupName() != null ? permission.getGroupName() : "Unknown Group"))
+            grantedPermissions(role, ancestors).stream()
+                    .collect(Collectors.groupingBy(granted ->
+                        granted.permission().getGroupName() != null ? granted.permission().getGroupName() : "Unknown Group"))
                     .forEach((groupName, permissionList) -> {
                         TreeNodeDTO permissionTreeNodeDTO = TreeNodeDTO.builder()
                                 .id(role.getId() != null ? role.getId().toString() : null)
@@ -143,17 +299,18 @@ public class RoleServiceImpl implements RoleService {
                                 .children(new ArrayList<>())
                                 .build();
 
-                        for (Permission permission : permissionList) {
-                            if (permission != null) {
-                                TreeNodeDTO permissionTreeNodeDTO2 = TreeNodeDTO.builder()
-                                        .id(permission.getId() != null ? permission.getId().toString() : null)
-                                        .key((permission.getId() != null ? permission.getId().toString() : "") +
-                                             (role.getId() != null ? role.getId().toString() : ""))
-                                        .label(permission.getName() != null ? permission.getName() : "Unknown Permission")
-                                        .isPermission(true)
-                                        .build();
-                                permissionTreeNodeDTO.getChildren().add(permissionTreeNodeDTO2);
-                            }
+                        for (GrantedPermission granted : permissionList) {
+                            Permission permission = granted.permission();
+                            TreeNodeDTO permissionTreeNodeDTO2 = TreeNodeDTO.builder()
+                                    .id(permission.getId() != null ? permission.getId().toString() : null)
+                                    .key((permission.getId() != null ? permission.getId().toString() : "") +
+                                         (role.getId() != null ? role.getId().toString() : ""))
+                                    .label(permission.getName() != null ? permission.getName() : "Unknown Permission")
+                                    .isPermission(true)
+                                    .inherited(granted.isInherited())
+                                    .inheritedFrom(granted.isInherited() ? granted.source().getName() : null)
+                                    .build();
+                            permissionTreeNodeDTO.getChildren().add(permissionTreeNodeDTO2);
                         }
                         treeNodeDTO.getChildren().add(permissionTreeNodeDTO);
                     });
@@ -162,4 +319,107 @@ public class RoleServiceImpl implements RoleService {
 
         return result;
     }
+
+    // One lookup of the requested permissions, one of the current ones, then the difference as two batches
+    private RoleDto applyPermissions(Role role, UpdateRolePermissionsRequest.Mode mode, Set<Long> permissionIds) {
+        Map<Long, PermissionDto> requested = new LinkedHashMap<>();
+        if (mode != UpdateRolePermissionsRequest.Mode.REMOVE && !permissionIds.isEmpty()) {
+            this.permissionRepository.findDtosByIdIn(permissionIds)
+                    .forEach(permission -> requested.put(permission.getId(), permission));
+            for (Long permissionId : permissionIds) {
+                if (!requested.containsKey(permissionId)) {
+                    throw new NotFoundException("permission", permissionId);
+                }
+            }
+        }
+
+        Map<Long, PermissionDto> current = new LinkedHashMap<>();
+        if (role.getId() != null) {
+            this.permissionRepository.findDtosByRoleId(role.getId())
+                    .forEach(permission -> current.put(permission.getId(), permission));
+        }
+
+        List<Long> inserts = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        switch (mode) {
+            case REPLACE -> {
+                requested.keySet().stream().filter(id -> !current.containsKey(id)).forEach(inserts::add);
+                current.keySet().stream().filter(id -> !requested.containsKey(id)).forEach(deletes::add);
+            }
+            case ADD -> requested.keySet().stream().filter(id -> !current.containsKey(id)).forEach(inserts::add);
+            case REMOVE -> permissionIds.stream().filter(current::containsKey).forEach(deletes::add);
+        }
+
+        if (!inserts.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(INSERT_ROLE_PERMISSION, inserts, inserts.size(), (ps, permissionId) -> {
+                ps.setLong(1, permissionId);
+                ps.setLong(2, role.getId());
+            });
+        }
+        if (!deletes.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(DELETE_ROLE_PERMISSION, deletes, deletes.size(), (ps, permissionId) -> {
+                ps.setLong(1, permissionId);
+                ps.setLong(2, role.getId());
+            });
+        }
+
+        if (!inserts.isEmpty() || !deletes.isEmpty()) {
+            this.effectivePermissionService.granted(role.getId(), inserts);
+            this.effectivePermissionService.revoked(role.getId(), deletes);
+            this.permissionHolderIndex.roleChanged(role.getId());
+            this.invalidationBus.roleChanged(role.getId());
+        }
+
+        deletes.forEach(current::remove);
+        inserts.forEach(permissionId -> current.put(permissionId, requested.get(permissionId)));
+        return RoleDto.builder()
+                .id(role.getId())
+                .name(role.getName())
+                .permissions(new ArrayList<>(current.values()))
+                .build();
+    }
+
+    // Ancestors of every role, from one closure query; roles of the list only, so other tenants never appear
+    private Map<Long, List<Role>> ancestorsByRole(List<Role> roles) {
+        Map<Long, Role> rolesById = new HashMap<>();
+        roles.stream().filter(Objects::nonNull).forEach(role -> rolesById.put(role.getId(), role));
+        Map<Long, List<Role>> ancestors = new HashMap<>();
+        if (rolesById.isEmpty()) {
+            return ancestors;
+        }
+        for (RoleClosure row : this.roleClosureRepository.findAncestorsOf(rolesById.keySet())) {
+            Role ancestor = rolesById.get(row.getId().getAncestorId());
+            if (ancestor != null) {
+                ancestors.computeIfAbsent(row.getId().getDescendantId(), id -> new ArrayList<>()).add(ancestor);
+            }
+        }
+        // the lowest id wins when several ancestors grant the same permission, so trees are stable
+        ancestors.values().forEach(list -> list.sort(Comparator.comparing(Role::getId)));
+        return ancestors;
+    }
+
+    // Direct permissions first, then the ones only held through an ancestor
+    private List<GrantedPermission> grantedPermissions(Role role, Map<Long, List<Role>> ancestors) {
+        List<GrantedPermission> granted = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Permission permission : role.getPermissions()) {
+            if (permission != null && seen.add(permission.getId())) {
+                granted.add(new GrantedPermission(permission, null));
+            }
+        }
+        for (Role ancestor : ancestors.getOrDefault(role.getId(), List.of())) {
+            for (Permission permission : ancestor.getPermissions()) {
+                if (permission != null && seen.add(permission.getId())) {
+                    granted.add(new GrantedPermission(permission, ancestor));
+                }
+            }
+        }
+        return granted;
+    }
+
+    private record GrantedPermission(Permission permission, Role source) {
+        boolean isInherited() {
+            return source != null;
+        }
+    }
 }
@@ -0,0 +1,17 @@
+package com.ask.basic.auth.service;
+
+import com.ask.basic.auth.data.CheckPermissionsRequest;
+import com.ask.basic.auth.data.IntrospectTokensRequest;
+import com.ask.basic.auth.data.PermissionCheckResult;
+import com.ask.basic.auth.data.TokenIntrospection;
+
+import java.util.List;
+
+public interface TokenIntrospectionService {
+
+    // One result per token, in the order given
+    List<TokenIntrospection> introspect(IntrospectTokensRequest request);
+
+    // One result per check, in the order given
+    List<PermissionCheckResult> checkPermissions(CheckPermissionsRequest request);
+}
@@ -0,0 +1,141 @@
+package com.ask.basic.auth.service;
+
+import com.ask.basic.auth.data.CheckPermissionsRequest;
+import com.ask.basic.auth.data.IntrospectTokensRequest;
+import com.ask.basic.auth.data.PermissionCheckResult;
+import com.ask.basic.auth.data.TokenIntrospection;
+import com.ask.basic.auth.data.TokenIntrospection.Reason;
+import com.ask.basic.infrastructure.auth.JwtService;
+import com.ask.basic.infrastructure.authorization.PermissionTrie;
+import com.ask.basic.infrastructure.directory.CompactUserStore;
+import com.ask.basic.infrastructure.directory.UserDirectory;
+import com.ask.basic.infrastructure.tenancy.TenancyProperties;
+import com.ask.basic.infrastructure.tenancy.TenantContext;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Answers for other services what {@code JwtFilter} would conclude about a token, and which
+ * permissions a user holds, for a whole batch per call. Signatures are checked through the
+ * verified-token cache and authorities come from the per-user cache, so a repeated token or user
+ * costs a map lookup. Each token is looked at in the tenant it was issued in.
+ */
+@Service
+@Timed(value = "auth.service", histogram = true)
+@RequiredArgsConstructor
+public class TokenIntrospectionServiceImpl implements TokenIntrospectionService {
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtService jwtService;
+    private final EffectivePermissionService effectivePermissionService;
+    private final UserDirectory userDirectory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TenancyProperties tenancyProperties;
+
+    private record Principal(long id, String username, boolean active) {
+    }
+
+    @Override
+    public List<TokenIntrospection> introspect(IntrospectTokensRequest request) {
+        List<TokenIntrospection> results = new ArrayList<>(request.getTokens().size());
+        for (String token : request.getTokens()) {
+            results.add(introspect(token));
+        }
+        return results;
+    }
+
+    @Override
+    public List<PermissionCheckResult> checkPermissions(CheckPermissionsRequest request) {
+        List<PermissionCheckResult> results = new ArrayList<>(request.getChecks().size());
+        for (CheckPermissionsRequest.Check check : request.getChecks()) {
+            PermissionTrie grants = PermissionTrie.compile(authorityNames(check.getUserId()));
+            Map<String, Boolean> permissions = new LinkedHashMap<>();
+            for (String permission : check.getPermissions()) {
+                permissions.put(permission, grants.implies(permission));
+            }
+            results.add(new PermissionCheckResult(check.getUserId(), permissions));
+        }
+        return results;
+    }
+
+    private TokenIntrospection introspect(String token) {
+        String jwt = token != null && token.startsWith(BEARER) ? token.substring(BEARER.length()) : token;
+        Claims claims;
+        try {
+            claims = this.jwtService.verify(jwt);
+        } catch (ExpiredJwtException e) {
+            return TokenIntrospection.builder()
+                    .reason(Reason.EXPIRED)
+                    .subject(e.getClaims().getSubject())
+                    .expiresAt(e.getClaims().getExpiration())
+                    .build();
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenIntrospection.builder().reason(Reason.INVALID).build();
+        }
+
+        // Tokens issued before tenancy belong to the default tenant, as in JwtFilter
+        String claimed = claims.get(TenantContext.TENANT_CLAIM, String.class);
+        String tenant = claimed != null ? claimed : this.tenancyProperties.getDefaultTenant();
+        TokenIntrospection.TokenIntrospectionBuilder result = TokenIntrospection.builder()
+                .subject(claims.getSubject())
+                .tenant(tenant)
+                .issuedAt(claims.getIssuedAt())
+                .expiresAt(claims.getExpiration());
+
+        String callerTenant = TenantContext.get();
+        TenantContext.set(tenant);
+        try {
+            Optional<Principal> principal = findPrincipal(tenant, claims.getSubject());
+            if (principal.isEmpty() || !principal.get().username().equals(claims.getSubject())) {
+                return result.reason(Reason.UNKNOWN_USER).build();
+            }
+            result.userId(principal.get().id());
+            if (!principal.get().active()) {
+                return result.reason(Reason.DISABLED_USER).build();
+            }
+            return result.active(true).authorities(authorityNames(principal.get().id())).build();
+        } finally {
+            TenantContext.set(callerTenant);
+        }
+    }
+
+    private List<String> authorityNames(Long userId) {
+        List<String> names = new ArrayList<>();
+        for (GrantedAuthority authority : this.effectivePermissionService.getAuthorities(userId)) {
+            names.add(authority.getAuthority());
+        }
+        return names;
+    }
+
+    // The session of this request belongs to the caller's tenant, so the fallback names the tenant itself
+    private Optional<Principal> findPrincipal(String tenant, String email) {
+        if (this.userDirectory.isReady()) {
+            Optional<Principal> cached = this.userDirectory.findByEmail(email).map(TokenIntrospectionServiceImpl::principal);
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
+        return this.jdbcTemplate.query("select id, coalesce(username, email), is_active from p_app_user " +
+                        "where tenant_id = ? and email = ?",
+                (rs, i) -> new Principal(rs.getLong(1), rs.getString(2), rs.getBoolean(3)),
+                tenant, email).stream().findFirst();
+    }
+
+    private static Principal principal(CompactUserStore.Identity identity) {
+        return new Principal(identity.id(), identity.username() != null ? identity.username() : identity.email(),
+                identity.active());
+    }
+}
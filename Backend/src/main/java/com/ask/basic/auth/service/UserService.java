@@ -1,7 +1,12 @@
 package com.ask.basic.auth.service;
 
 import com.ask.basic.auth.data.AttachRolesToUserRequest;
+import com.ask.basic.auth.data.DirectoryStatisticsDto;
+import com.ask.basic.auth.data.PermissionDto;
+import com.ask.basic.auth.data.PermissionHoldersPage;
 import com.ask.basic.auth.data.UpdateUserRequest;
+import com.ask.basic.auth.data.UserFields;
+import com.ask.basic.auth.data.UserView;
 import com.ask.basic.auth.domain.User;
 
 import java.util.List;
@@ -9,6 +14,11 @@ import java.util.List;
 public interface UserService {
     User getUserById(Long userId);
     List<User> getAllUsers();
+    UserView getUserById(Long userId, UserFields fields);
+    List<UserView> getAllUsers(UserFields fields);
     User updateUser(UpdateUserRequest request);
     User attachRolesToUser(AttachRolesToUserRequest request);
+    List<PermissionDto> getUserPermissions(Long userId);
+    PermissionHoldersPage getPermissionHolders(String permission, String group, int page, int size, UserFields fields);
+    DirectoryStatisticsDto getDirectoryStatistics();
 }
@@ -1,14 +1,27 @@
 package com.ask.basic.auth.service;
 
 import com.ask.basic.auth.data.AttachRolesToUserRequest;
+import com.ask.basic.auth.data.DirectoryStatisticsDto;
+import com.ask.basic.auth.data.PermissionDto;
+import com.ask.basic.auth.data.PermissionHoldersPage;
 import com.ask.basic.auth.data.UpdateUserRequest;
+import com.ask.basic.auth.data.UserFields;
+import com.ask.basic.auth.data.UserView;
+import com.ask.basic.auth.domain.AccountStatus;
 import com.ask.basic.auth.domain.Role;
 import com.ask.basic.auth.domain.RoleRepository;
 import com.ask.basic.auth.domain.User;
 import com.ask.basic.auth.domain.UserRepository;
+import com.ask.basic.infrastructure.authorization.PermissionHolderIndex;
+import com.ask.basic.infrastructure.directory.UserDirectory;
 import com.ask.basic.infrastructure.exceptions.NotFoundException;
+import com.ask.basic.infrastructure.exceptions.ValidationException;
+import com.ask.basic.infrastructure.invalidation.InvalidationBus;
+import com.ask.basic.infrastructure.statistics.DirectoryStatistics;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -16,11 +29,19 @@ import java.util.List;
 import java.util.Set;
 
 @Service
+@Timed(value = "auth.service", histogram = true)
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final PermissionHolderIndex permissionHolderIndex;
+    private final EffectivePermissionService effectivePermissionService;
+    private final DirectoryStatistics directoryStatistics;
+    private final UserDirectory userDirectory;
+    private final InvalidationBus invalidationBus;
+
+    private static final int MAX_PAGE_SIZE = 500;
 
     @Override
     public User getUserById(Long userId) {
@@ -38,6 +59,24 @@ public class UserServiceImpl implements UserService {
         return users != null ? users : new ArrayList<>();
     }
 
+    @Override
+    public UserView getUserById(Long userId, UserFields fields) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
+        }
+
+        List<UserView> users = this.userRepository.findUserViews(fields, userId);
+        if (users.isEmpty()) {
+            throw new NotFoundException("user", userId);
+        }
+        return users.get(0);
+    }
+
+    @Override
+    public List<UserView> getAllUsers(UserFields fields) {
+        return this.userRepository.findUserViews(fields, null);
+    }
+
     @Override
     public User updateUser(UpdateUserRequest request) {
         if (request.getId() == null) {
@@ -46,6 +85,8 @@ public class UserServiceImpl implements UserService {
 
         User user = this.userRepository.findById(request.getId())
                 .orElseThrow(() -> new NotFoundException("user", request.getId()));
+        Boolean wasActive = user.getIsActive();
+        AccountStatus previousStatus = user.getAccountStatus();
 
         // Only update non-null fields
         if (request.getTitle() != null) {
@@ -98,10 +139,15 @@ public class UserServiceImpl implements UserService {
         }
 
         user.setUpdatedAt(java.time.LocalDateTime.now());
-        return this.userRepository.save(user);
+        User saved = this.userRepository.save(user);
+        this.directoryStatistics.userChanged(wasActive, previousStatus, saved.getIsActive(), saved.getAccountStatus());
+        this.userDirectory.usersChanged(List.of(saved.getId()));
+        this.invalidationBus.userChanged(saved.getId());
+        return saved;
     }
 
     @Override
+    @Transactional
     public User attachRolesToUser(AttachRolesToUserRequest attachRolesToUserRequest) {
         if (attachRolesToUserRequest.getUserId() == null) {
             throw new IllegalArgumentException("User ID cannot be null");
@@ -122,7 +168,64 @@ public class UserServiceImpl implements UserService {
             }
         }
 
+        Set<Long> previousRoleIds = new HashSet<>();
+        user.getRoles().forEach(role -> previousRoleIds.add(role.getId()));
         user.setRoles(userRoles);
-        return this.userRepository.save(user);
+        // flushed, so the effective permissions are computed from the new links
+        User saved = this.userRepository.saveAndFlush(user);
+        this.effectivePermissionService.refresh(List.of(saved.getId()));
+        this.permissionHolderIndex.userChanged(saved.getId());
+        this.directoryStatistics.userRolesChanged(previousRoleIds, userRoles.stream().map(Role::getId).toList());
+        this.userDirectory.usersChanged(List.of(saved.getId()));
+        this.invalidationBus.userChanged(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public List<PermissionDto> getUserPermissions(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
+        }
+        if (!this.userRepository.existsById(userId)) {
+            throw new NotFoundException("user", userId);
+        }
+        return this.effectivePermissionService.getPermissions(userId);
+    }
+
+    @Override
+    public PermissionHoldersPage getPermissionHolders(String permission, String group, int page, int size, UserFields fields) {
+        if ((permission == null) == (group == null)) {
+            throw new ValidationException("Either permission or group is required, not both", "INVALID_PERMISSION_QUERY");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE, "INVALID_PAGE");
+        }
+
+        PermissionHolderIndex.Holders holders = permission != null
+                ? this.permissionHolderIndex.findByPermission(permission, page, size)
+                : this.permissionHolderIndex.findByGroup(group, page, size);
+        return PermissionHoldersPage.builder()
+                .permission(permission)
+                .group(group)
+                .page(page)
+                .size(size)
+                .total(holders.total())
+                .users(this.userRepository.findUserViewsByIds(fields, holders.userIds()))
+                .build();
+    }
+
+    @Override
+    public DirectoryStatisticsDto getDirectoryStatistics() {
+        DirectoryStatistics.Snapshot snapshot = this.directoryStatistics.snapshot();
+        return DirectoryStatisticsDto.builder()
+                .users(snapshot.users())
+                .activeUsers(snapshot.activeUsers())
+                .inactiveUsers(snapshot.users() - snapshot.activeUsers())
+                .accountStatuses(snapshot.accountStatuses())
+                .roles(snapshot.roles().stream()
+                        .map(role -> new DirectoryStatisticsDto.RoleUsers(role.roleId(), role.name(), role.users()))
+                        .toList())
+                .countedAt(snapshot.countedAt())
+                .build();
     }
 }
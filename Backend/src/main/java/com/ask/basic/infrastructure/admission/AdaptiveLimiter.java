@@ -0,0 +1,68 @@
+package com.ask.basic.infrastructure.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit for one bulkhead. A completion is overloaded when it was slower than the
+ * target latency or finished while the connection pool had waiters. Every {@code limit} overloaded
+ * completions shrink the limit by 10%, so a single slow request does not collapse it; every
+ * {@code limit} healthy completions in a row grow it by one. Acquisition is a CAS on the in-flight count.
+ */
+public class AdaptiveLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private int healthySinceChange;
+    private int sinceBackoff;
+
+    public AdaptiveLimiter(int minLimit, int maxLimit, long targetLatencyNanos) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.limit = this.maxLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos, boolean poolSaturated) {
+        inFlight.decrementAndGet();
+        boolean overloaded = latencyNanos > targetLatencyNanos || poolSaturated;
+        synchronized (this) {
+            int currentLimit = (int) limit;
+            if (overloaded) {
+                healthySinceChange = 0;
+                if (++sinceBackoff >= currentLimit) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    sinceBackoff = 0;
+                }
+            } else if (++healthySinceChange >= currentLimit) {
+                limit = Math.min(maxLimit, limit + 1);
+                healthySinceChange = 0;
+                sinceBackoff = 0;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
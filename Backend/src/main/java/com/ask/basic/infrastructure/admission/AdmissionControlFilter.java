@@ -0,0 +1,104 @@
+package com.ask.basic.infrastructure.admission;
+
+import com.ask.basic.infrastructure.response.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Gives every {@link RequestClass} its own adaptive concurrency limit, so a login storm or a burst
+ * of admin writes cannot take all the Tomcat threads and connections from the other classes.
+ * Requests over the limit are shed before any work is done, with 503 and {@code Retry-After}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionProperties properties;
+    private final ConnectionPoolPressure connectionPoolPressure;
+    private final ObjectMapper objectMapper;
+    private final Map<RequestClass, AdaptiveLimiter> limiters = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Counter> admitted = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Counter> rejected = new EnumMap<>(RequestClass.class);
+
+    public AdmissionControlFilter(AdmissionProperties properties, ConnectionPoolPressure connectionPoolPressure,
+                                  ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.connectionPoolPressure = connectionPoolPressure;
+        this.objectMapper = objectMapper;
+
+        for (RequestClass requestClass : RequestClass.values()) {
+            AdmissionProperties.ClassLimit limit = properties.limitFor(requestClass);
+            if (limit == null) {
+                continue;
+            }
+            AdaptiveLimiter limiter = new AdaptiveLimiter(limit.getMinConcurrency(), limit.getMaxConcurrency(),
+                    limit.getTargetLatencyMs() * 1_000_000L);
+            limiters.put(requestClass, limiter);
+
+            String tag = requestClass.name().toLowerCase();
+            admitted.put(requestClass, Counter.builder("admission.requests")
+                    .tag("class", tag).tag("outcome", "admitted").register(meterRegistry));
+            rejected.put(requestClass, Counter.builder("admission.requests")
+                    .tag("class", tag).tag("outcome", "rejected").register(meterRegistry));
+            Gauge.builder("admission.limit", limiter, AdaptiveLimiter::getLimit)
+                    .description("Current concurrency limit of the bulkhead")
+                    .tag("class", tag).register(meterRegistry);
+            Gauge.builder("admission.inflight", limiter, AdaptiveLimiter::getInFlight)
+                    .description("Requests currently admitted to the bulkhead")
+                    .tag("class", tag).register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RequestClass requestClass = RequestClass.of(request);
+        AdaptiveLimiter limiter = limiters.get(requestClass);
+        if (!properties.isEnabled() || limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!limiter.tryAcquire()) {
+            rejected.get(requestClass).increment();
+            reject(request, response);
+            return;
+        }
+
+        admitted.get(requestClass).increment();
+        long started = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            boolean poolSaturated = requestClass != RequestClass.LOGIN
+                    && connectionPoolPressure.threadsAwaitingConnection() > properties.getPoolWaitersThreshold();
+            limiter.release(System.nanoTime() - started, poolSaturated);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ApiResponse<Object> body = ApiResponse.error("Server is busy, please retry later", "OVERLOADED", request.getRequestURI());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
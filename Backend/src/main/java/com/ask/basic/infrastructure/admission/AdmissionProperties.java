@@ -0,0 +1,52 @@
+package com.ask.basic.infrastructure.admission;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Bulkhead limits per {@link RequestClass}, e.g.
+ * <pre>
+ * admission.login.max-concurrency=8
+ * admission.login.target-latency-ms=400
+ * admission.user-read.min-concurrency=4
+ * </pre>
+ * Each class starts at its max concurrency; the adaptive limiter moves it between min and max.
+ */
+@Data
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    private int retryAfterSeconds = 1;
+    // Connection pool waiters above which every DB-bound class backs off
+    private int poolWaitersThreshold = 2;
+    // BCrypt is CPU bound: more logins in flight than cores only adds queueing
+    private ClassLimit login = new ClassLimit(1, Math.max(2, Runtime.getRuntime().availableProcessors()), 500);
+    private ClassLimit treeRead = new ClassLimit(2, 16, 300);
+    private ClassLimit userRead = new ClassLimit(4, 32, 200);
+    private ClassLimit adminWrite = new ClassLimit(1, 8, 300);
+    private ClassLimit introspection = new ClassLimit(4, 32, 100);
+
+    public ClassLimit limitFor(RequestClass requestClass) {
+        return switch (requestClass) {
+            case LOGIN -> login;
+            case TREE_READ -> treeRead;
+            case USER_READ -> userRead;
+            case ADMIN_WRITE -> adminWrite;
+            case INTROSPECTION -> introspection;
+            case OTHER -> null;
+        };
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ClassLimit {
+        private int minConcurrency;
+        private int maxConcurrency;
+        private long targetLatencyMs;
+    }
+}
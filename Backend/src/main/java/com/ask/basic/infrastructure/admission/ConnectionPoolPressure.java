@@ -0,0 +1,44 @@
+package com.ask.basic.infrastructure.admission;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+// Reads how many threads are currently queued for a connection in the Hikari pool
+@Component
+@RequiredArgsConstructor
+public class ConnectionPoolPressure {
+
+    private final DataSource dataSource;
+    private volatile HikariPoolMXBean pool;
+    private volatile boolean unsupported;
+
+    public int threadsAwaitingConnection() {
+        HikariPoolMXBean bean = pool();
+        return bean != null ? bean.getThreadsAwaitingConnection() : 0;
+    }
+
+    private HikariPoolMXBean pool() {
+        HikariPoolMXBean bean = pool;
+        if (bean != null || unsupported) {
+            return bean;
+        }
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                unsupported = true;
+                return null;
+            }
+            // Null until the pool has started, so keep asking until it is there
+            bean = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            pool = bean;
+            return bean;
+        } catch (SQLException e) {
+            unsupported = true;
+            return null;
+        }
+    }
+}
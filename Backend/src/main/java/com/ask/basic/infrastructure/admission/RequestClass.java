@@ -0,0 +1,46 @@
+package com.ask.basic.infrastructure.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Endpoint classes that get their own bulkhead. Classification looks at method and path only,
+ * so it runs before any handler mapping or authentication work.
+ */
+public enum RequestClass {
+    LOGIN,
+    TREE_READ,
+    USER_READ,
+    ADMIN_WRITE,
+    // Token and permission lookups by other services: POSTs, but read-only and on their hot path
+    INTROSPECTION,
+    // Not limited: actuator, docs, static resources
+    OTHER;
+
+    private static final String API_PREFIX = "/api/v1/auth/";
+
+    public static RequestClass of(HttpServletRequest request) {
+        return of(request.getMethod(), request.getRequestURI());
+    }
+
+    public static RequestClass of(String method, String path) {
+        if (!path.startsWith(API_PREFIX)) {
+            return OTHER;
+        }
+        String endpoint = path.substring(API_PREFIX.length());
+        boolean read = "GET".equals(method);
+
+        if (!read && (endpoint.equals("authenticate") || endpoint.equals("register"))) {
+            return LOGIN;
+        }
+        if (!read && (endpoint.equals("introspect_tokens") || endpoint.equals("check_permissions"))) {
+            return INTROSPECTION;
+        }
+        if (read && (endpoint.contains("tree") || endpoint.startsWith("permissions"))) {
+            return TREE_READ;
+        }
+        if (read) {
+            return USER_READ;
+        }
+        return "OPTIONS".equals(method) ? OTHER : ADMIN_WRITE;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ask.basic.infrastructure.aot;
+
+import com.ask.basic.auth.data.AttachRolesToUserRequest;
+import com.ask.basic.auth.data.BatchRequest;
+import com.ask.basic.auth.data.CheckPermissionsRequest;
+import com.ask.basic.auth.data.CloneRoleRequest;
+import com.ask.basic.auth.data.CreateRoleRequest;
+import com.ask.basic.auth.data.DirectoryStatisticsDto;
+import com.ask.basic.auth.data.EffectivePermissionsRebuild;
+import com.ask.basic.auth.data.IntrospectTokensRequest;
+import com.ask.basic.auth.data.MergeRolesRequest;
+import com.ask.basic.auth.data.PermissionCheckResult;
+import com.ask.basic.auth.data.PermissionDto;
+import com.ask.basic.auth.data.PermissionHoldersPage;
+import com.ask.basic.auth.data.RoleDto;
+import com.ask.basic.auth.data.RoleOperationResult;
+import com.ask.basic.auth.data.TokenIntrospection;
+import com.ask.basic.auth.data.TreeNodeDTO;
+import com.ask.basic.auth.data.UpdateRoleParentsRequest;
+import com.ask.basic.auth.data.UpdateRolePermissionsRequest;
+import com.ask.basic.auth.data.UpdateRoleRequest;
+import com.ask.basic.auth.data.UpdateUserRequest;
+import com.ask.basic.auth.data.UserView;
+import com.ask.basic.auth.domain.Permission;
+import com.ask.basic.auth.domain.Role;
+import com.ask.basic.auth.domain.User;
+import com.ask.basic.auth.request.LoginRequest;
+import com.ask.basic.auth.request.RegisterRequest;
+import com.ask.basic.auth.response.LoginResponse;
+import com.ask.basic.infrastructure.invalidation.InvalidationEvent;
+import com.ask.basic.infrastructure.response.ApiResponse;
+import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reflection and resource hints for the native image. Controller signatures are covered by Spring's
+ * own AOT processing; this adds what it cannot see: types Jackson reaches through generics and
+ * entity graphs, Jackson's identity generator, and the classes jjwt 0.11 creates by name.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    // Lombok generates plain accessors and builders, so binding hints on the types are enough
+    private static final Class<?>[] JSON_TYPES = {
+            ApiResponse.class, LoginRequest.class, RegisterRequest.class, LoginResponse.class,
+            CreateRoleRequest.class, CloneRoleRequest.class, MergeRolesRequest.class, UpdateRoleRequest.class,
+            UpdateRoleParentsRequest.class, UpdateRolePermissionsRequest.class,
+            AttachRolesToUserRequest.class, UpdateUserRequest.class,
+            RoleDto.class, RoleOperationResult.class, PermissionDto.class, TreeNodeDTO.class, UserView.class,
+            PermissionHoldersPage.class, EffectivePermissionsRebuild.class, DirectoryStatisticsDto.class,
+            IntrospectTokensRequest.class, TokenIntrospection.class, CheckPermissionsRequest.class, PermissionCheckResult.class,
+            BatchRequest.class, InvalidationEvent.class,
+            User.class, Role.class, Permission.class
+    };
+
+    // Jwts and CompressionCodecs instantiate these through Classes.newInstance(String)
+    private static final String[] JJWT_TYPES = {
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+            "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        bindings.registerReflectionHints(hints.reflection(), JSON_TYPES);
+        hints.reflection().registerType(ObjectIdGenerators.PropertyGenerator.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        // jjwt finds its JSON serializer through ServiceLoader
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+        hints.resources().registerPattern("db/*.sql");
+    }
+}
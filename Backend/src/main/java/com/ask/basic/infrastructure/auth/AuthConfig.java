@@ -2,6 +2,9 @@ package com.ask.basic.infrastructure.auth;
 
 import com.ask.basic.auth.domain.UserRepository;
 import com.ask.basic.infrastructure.exceptions.NotFoundException;
+import com.ask.basic.infrastructure.metrics.TimedPasswordEncoder;
+import com.ask.basic.infrastructure.ratelimit.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -30,7 +33,9 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class AuthConfig {
 
     private final JwtFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http) throws Exception {
@@ -61,7 +66,8 @@ public class AuthConfig {
                         .anyRequest()
                         .authenticated()
                 )
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtFilter.class);
         return http.build();
     }
 
@@ -93,7 +99,7 @@ public class AuthConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
 
@@ -2,15 +2,21 @@ package com.ask.basic.infrastructure.auth;
 
 
 import com.ask.basic.auth.domain.User;
-import com.ask.basic.auth.domain.UserRepository;
+import com.ask.basic.auth.service.EffectivePermissionService;
+import com.ask.basic.infrastructure.authorization.PermissionAuthenticationToken;
 import com.ask.basic.infrastructure.exceptions.NotFoundException;
+import com.ask.basic.infrastructure.tenancy.TenancyProperties;
+import com.ask.basic.infrastructure.tenancy.TenantContext;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.Data;
 import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -18,13 +24,34 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 
 import java.io.IOException;
+import java.util.Collection;
 
 @Component
 @Data
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalLoader principalLoader;
+    private final EffectivePermissionService effectivePermissionService;
+    private final TenancyProperties tenancyProperties;
+    private final Timer verificationTimer;
+    private final Timer principalLoadTimer;
+
+    public JwtFilter(JwtService jwtService, PrincipalLoader principalLoader, EffectivePermissionService effectivePermissionService,
+                     TenancyProperties tenancyProperties, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.principalLoader = principalLoader;
+        this.effectivePermissionService = effectivePermissionService;
+        this.tenancyProperties = tenancyProperties;
+        this.verificationTimer = Timer.builder("auth.jwt.verification")
+                .description("JWT parsing and signature verification time")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.principalLoadTimer = Timer.builder("auth.principal.load")
+                .description("Time to load the authenticated user and its authorities")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
@@ -36,13 +63,20 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         String jwt = token.substring(7);
-        String email = jwtService.extractUserName(jwt);
+        Claims claims = verificationTimer.record(() -> jwtService.verify(jwt));
+        String email = claims.getSubject();
+        // Tokens issued before tenancy belong to the default tenant, whatever the header says
+        String tenant = claims.get(TenantContext.TENANT_CLAIM, String.class);
+        TenantContext.set(tenant != null ? tenant : tenancyProperties.getDefaultTenant());
 
         if (userNotAuthenticated(email)) {
-            User user = this.userRepository.findByEmail(email).orElseThrow(() -> new NotFoundException("user", email));
+            User user = principalLoadTimer.record(() -> principalLoader.findByEmail(email)
+                    .orElseThrow(() -> new NotFoundException("user", email)));
 
-            if (jwtService.isTokenValid(jwt, user)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+            if (jwtService.isTokenValid(claims, user)) {
+                // direct and inherited permissions alike, cached per user until a change to them commits
+                Collection<? extends GrantedAuthority> authorities = principalLoadTimer.record(() -> effectivePermissionService.getAuthorities(user.getId()));
+                PermissionAuthenticationToken authToken = new PermissionAuthenticationToken(user, authorities);
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -0,0 +1,163 @@
+package com.ask.basic.infrastructure.auth;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The signing and verification keys of {@link JwtProperties}, decoded once at startup. Tokens name
+ * their key in the {@code kid} header; resolving it is a map lookup, so a rotation only needs the
+ * new key added everywhere before it signs, and the old one kept until its tokens have expired.
+ */
+@Log4j2
+@Component
+@EnableConfigurationProperties(JwtProperties.class)
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    // Used when no key is configured and jwt.allow-development-key is set; tokens signed with it carry no kid
+    private static final String DEVELOPMENT_KEY_ID = "development";
+    private static final String DEVELOPMENT_SECRET = "3778214125442A472D4B6150645267556B58703273357638792F423F4528482B";
+
+    public record RingKey(String id, SignatureAlgorithm algorithm, Key verificationKey, Key signingKey,
+                          Instant signFrom, Instant verifyUntil) {
+
+        boolean canSign() {
+            return signingKey != null;
+        }
+
+        boolean retired(Instant now) {
+            return verifyUntil != null && !now.isBefore(verifyUntil);
+        }
+    }
+
+    private final Map<String, RingKey> keys = new HashMap<>();
+    private final String untaggedKeyId;
+    // latest sign-from first, keys signing from the start last
+    private final List<RingKey> signingKeys = new ArrayList<>();
+
+    public JwtKeyRing(JwtProperties properties) {
+        if (properties.getKeys().isEmpty()) {
+            if (!properties.isAllowDevelopmentKey()) {
+                throw new IllegalStateException("No jwt.keys configured; configure a signing key, "
+                        + "or set jwt.allow-development-key=true for local development");
+            }
+            log.warn("No jwt.keys configured; tokens are signed with the built-in development secret");
+            keys.put(DEVELOPMENT_KEY_ID, load(JwtProperties.SigningKey.builder()
+                    .id(DEVELOPMENT_KEY_ID).secret(DEVELOPMENT_SECRET).build()));
+            untaggedKeyId = DEVELOPMENT_KEY_ID;
+        } else {
+            for (JwtProperties.SigningKey key : properties.getKeys()) {
+                if (key.getId() == null || key.getId().isBlank()) {
+                    throw new IllegalStateException("Every jwt.keys entry needs an id");
+                }
+                if (keys.put(key.getId(), load(key)) != null) {
+                    throw new IllegalStateException("Duplicate JWT key id '" + key.getId() + "'");
+                }
+            }
+            untaggedKeyId = properties.getUntaggedKeyId();
+            if (untaggedKeyId != null && !keys.containsKey(untaggedKeyId)) {
+                throw new IllegalStateException("jwt.untagged-key-id '" + untaggedKeyId + "' is not in jwt.keys");
+            }
+        }
+        keys.values().stream().filter(RingKey::canSign).forEach(signingKeys::add);
+        signingKeys.sort(Comparator.comparing(RingKey::signFrom, Comparator.nullsFirst(Comparator.<Instant>naturalOrder())).reversed());
+        log.info("JWT key ring: {} verification keys, {} that can sign{}", keys.size(), signingKeys.size(),
+                signingKeys.isEmpty() ? " (this node only verifies tokens)" : "");
+    }
+
+    // The key new tokens are signed with now
+    public RingKey signingKey() {
+        Instant now = Instant.now();
+        for (RingKey key : signingKeys) {
+            if ((key.signFrom() == null || !now.isBefore(key.signFrom())) && !key.retired(now)) {
+                return key;
+            }
+        }
+        throw new IllegalStateException("No JWT signing key is usable on this node");
+    }
+
+    // The key a token was signed with, whether or not it is still accepted
+    public RingKey keyOf(JwsHeader<?> header) {
+        String id = header.getKeyId() != null ? header.getKeyId() : untaggedKeyId;
+        RingKey key = id != null ? keys.get(id) : null;
+        if (key == null) {
+            throw new SignatureException("Unknown JWT signing key '" + header.getKeyId() + "'");
+        }
+        return key;
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        RingKey key = keyOf(header);
+        // a token cannot pick how its key is used, e.g. an RSA public key as an HMAC secret
+        if (!key.algorithm().getValue().equals(header.getAlgorithm())) {
+            throw new SignatureException("JWT key '" + key.id() + "' does not sign with " + header.getAlgorithm());
+        }
+        if (key.retired(Instant.now())) {
+            throw new SignatureException("JWT key '" + key.id() + "' was retired at " + key.verifyUntil());
+        }
+        return key.verificationKey();
+    }
+
+    // When the claims of a verified token stop being accepted
+    public Date acceptedUntil(RingKey key, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (key.verifyUntil() == null) {
+            return expiration;
+        }
+        Date retired = Date.from(key.verifyUntil());
+        return expiration == null || retired.before(expiration) ? retired : expiration;
+    }
+
+    private static RingKey load(JwtProperties.SigningKey key) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(key.getAlgorithm());
+        if (algorithm.isHmac()) {
+            if (key.getSecret() == null) {
+                throw new IllegalStateException("JWT key '" + key.getId() + "' needs a secret");
+            }
+            Key secret = Keys.hmacShaKeyFor(Decoders.BASE64.decode(key.getSecret()));
+            return new RingKey(key.getId(), algorithm, secret, secret, key.getSignFrom(), key.getVerifyUntil());
+        }
+        if (!algorithm.isRsa() && !algorithm.isEllipticCurve()) {
+            throw new IllegalStateException("JWT key '" + key.getId() + "' has unsupported algorithm " + key.getAlgorithm());
+        }
+        if (key.getPublicKey() == null) {
+            throw new IllegalStateException("JWT key '" + key.getId() + "' needs a public key");
+        }
+        try {
+            KeyFactory factory = KeyFactory.getInstance(algorithm.isRsa() ? "RSA" : "EC");
+            Key publicKey = factory.generatePublic(new X509EncodedKeySpec(decode(key.getPublicKey())));
+            Key privateKey = key.getPrivateKey() != null
+                    ? factory.generatePrivate(new PKCS8EncodedKeySpec(decode(key.getPrivateKey()))) : null;
+            return new RingKey(key.getId(), algorithm, publicKey, privateKey, key.getSignFrom(), key.getVerifyUntil());
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("JWT key '" + key.getId() + "' could not be read", e);
+        }
+    }
+
+    // PEM armour and line breaks are optional
+    private static byte[] decode(String encoded) {
+        return Base64.getMimeDecoder().decode(encoded.replaceAll("-----[A-Z ]+-----", ""));
+    }
+}
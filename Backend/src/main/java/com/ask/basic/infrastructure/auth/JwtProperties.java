@@ -0,0 +1,56 @@
+package com.ask.basic.infrastructure.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The keys tokens are signed and verified with, e.g.
+ * <pre>
+ * jwt.keys[0].id=2026-04
+ * jwt.keys[0].secret=${JWT_SECRET_2026_04}
+ * jwt.keys[1].id=2026-10
+ * jwt.keys[1].secret=${JWT_SECRET_2026_10}
+ * jwt.keys[1].sign-from=2026-10-20T00:00:00Z
+ * jwt.untagged-key-id=2026-04
+ * </pre>
+ * Every key verifies the tokens naming it in their {@code kid} header. Of the keys that can sign,
+ * the one with the latest {@code sign-from} already passed signs new tokens. Without any key the
+ * application does not start, unless {@code jwt.allow-development-key=true} lets it fall back to the
+ * built-in development secret.
+ */
+@Data
+@ConfigurationProperties(prefix = "jwt")
+public class JwtProperties {
+    // The key of tokens issued without a kid header, before the key ring; none are accepted when empty
+    private String untaggedKeyId;
+    // The development secret is public; only for local runs, the load test and benchmarks
+    private boolean allowDevelopmentKey = false;
+    private List<SigningKey> keys = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SigningKey {
+        private String id;
+        // HS256/384/512 take a secret; RS*, PS* and ES* a public key, and a private key to sign as well
+        @Builder.Default
+        private String algorithm = "HS256";
+        // Base64
+        private String secret;
+        // Base64 or PEM, X.509 and PKCS#8
+        private String publicKey;
+        private String privateKey;
+        // Not used to sign before; lets every node verify a new key before any node signs with it
+        private Instant signFrom;
+        // Tokens signed with it are rejected after
+        private Instant verifyUntil;
+    }
+}
@@ -1,29 +1,42 @@
 package com.ask.basic.infrastructure.auth;
 
+import com.ask.basic.infrastructure.tenancy.TenantContext;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
 import java.time.Instant;
-import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import static java.time.temporal.ChronoUnit.DAYS;
 
-@Data
-@AllArgsConstructor
 @Service
 public class JwtService {
-    private static final String SECRET_KEY = "3778214125442A472D4B6150645267556B58703273357638792F423F4528482B";
+    // Past this many, the verified tokens are forgotten at once rather than tracked for recency
+    private static final int MAX_VERIFIED_TOKENS = 20_000;
+
+    private final JwtKeyRing keyRing;
+    // Built once; picks the key of each token from the ring by its kid header
+    private final JwtParser parser;
+    // Claims of tokens whose signature was already checked, keyed by the whole token, signature included
+    private final Map<String, Verified> verifiedTokens = new ConcurrentHashMap<>();
+
+    private record Verified(Claims claims, Date acceptedUntil) {
+    }
+
+    public JwtService(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parserBuilder().setSigningKeyResolver(keyRing).build();
+    }
 
     public String extractUserName(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -35,17 +48,37 @@ public class JwtService {
     }
 
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Key getSigningKey() {
-        byte[] bytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(bytes);
+    // Signature checked once per token; throws like extractAllClaims for a bad or expired one
+    public Claims verify(String token) {
+        Verified verified = verifiedTokens.get(token);
+        if (verified != null && !isPast(verified.acceptedUntil())) {
+            return verified.claims();
+        }
+        if (verified != null) {
+            verifiedTokens.remove(token);
+        }
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+            verifiedTokens.clear();
+        }
+        // kept no longer than its key is accepted either
+        verifiedTokens.put(token, new Verified(jws.getBody(), keyRing.acceptedUntil(keyRing.keyOf(jws.getHeader()), jws.getBody())));
+        return jws.getBody();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.verified-tokens-sweep-interval-ms:60000}")
+    public void sweepVerifiedTokens() {
+        verifiedTokens.values().removeIf(verified -> isPast(verified.acceptedUntil()));
     }
 
     public String generateToken(Map<String, Objects> extraClaims, UserDetails userDetails) {
+        JwtKeyRing.RingKey key = keyRing.signingKey();
         return Jwts
                 .builder()
+                .setHeaderParam(JwsHeader.KEY_ID, key.id())
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
@@ -54,14 +87,22 @@ public class JwtService {
                                 Instant.now().plus(15, DAYS)
                         )
                 )
-                .signWith(getSigningKey())
+                .signWith(key.signingKey(), key.algorithm())
                 .compact();
     }
 
-
-
+    // Tokens carry the tenant they were issued in; JwtFilter scopes every later request to it
     public String generateToken(UserDetails userDetails) {
-        return generateToken(Collections.emptyMap(),userDetails);
+        JwtKeyRing.RingKey key = keyRing.signingKey();
+        return Jwts
+                .builder()
+                .setHeaderParam(JwsHeader.KEY_ID, key.id())
+                .setSubject(userDetails.getUsername())
+                .claim(TenantContext.TENANT_CLAIM, TenantContext.get())
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(Date.from(Instant.now().plus(15, DAYS)))
+                .signWith(key.signingKey(), key.algorithm())
+                .compact();
     }
 
     public Boolean isTokenValid(String token, UserDetails userDetails) {
@@ -69,6 +110,18 @@ public class JwtService {
         return tokenUsername.equals(userDetails.getUsername()) && !isTokenExpired(token);
     }
 
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isExpired(claims);
+    }
+
+    private static boolean isExpired(Claims claims) {
+        return isPast(claims.getExpiration());
+    }
+
+    private static boolean isPast(Date date) {
+        return date != null && date.before(new Date());
+    }
+
     private boolean isTokenExpired(String token) {
         return extractClaim(token, Claims::getExpiration).before(new Date());
     }
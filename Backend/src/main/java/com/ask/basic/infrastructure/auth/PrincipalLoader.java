@@ -0,0 +1,39 @@
+package com.ask.basic.infrastructure.auth;
+
+import com.ask.basic.auth.domain.User;
+import com.ask.basic.auth.domain.UserRepository;
+import com.ask.basic.infrastructure.directory.UserDirectory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Optional;
+
+/**
+ * Loads the user a token was issued to, in the current tenant. Reads the in-memory directory once
+ * it is loaded, in which case the user carries identity fields only, and the database before that
+ * or when the directory misses the user.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrincipalLoader {
+
+    private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
+
+    public Optional<User> findByEmail(String email) {
+        if (!this.userDirectory.isReady()) {
+            return this.userRepository.findByEmail(email);
+        }
+        return this.userDirectory.findByEmail(email).map(identity -> User.builder()
+                .id(identity.id())
+                .tenantId(identity.tenant())
+                .email(identity.email())
+                .username(identity.username())
+                .isActive(identity.active())
+                .accountStatus(identity.accountStatus())
+                .roles(new HashSet<>())
+                .build())
+                .or(() -> this.userRepository.findByEmail(email));
+    }
+}
@@ -0,0 +1,19 @@
+package com.ask.basic.infrastructure.authorization;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+
+@Configuration
+public class MethodSecurityConfig {
+
+    // static so the method security infrastructure can be built before the other configuration classes
+    @Bean
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+        handler.setPermissionEvaluator(new TriePermissionEvaluator());
+        handler.setDefaultRolePrefix("");
+        return handler;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ask.basic.infrastructure.authorization;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated token that compiles its authorities into a {@link PermissionTrie} on the first
+ * permission check of the request, so requests without checks pay nothing.
+ */
+public class PermissionAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private transient volatile PermissionTrie grants;
+
+    public PermissionAuthenticationToken(Object principal, Collection<? extends GrantedAuthority> authorities) {
+        super(principal, null, authorities);
+    }
+
+    public PermissionTrie getGrants() {
+        PermissionTrie compiled = grants;
+        if (compiled == null) {
+            compiled = compile(getAuthorities());
+            grants = compiled;
+        }
+        return compiled;
+    }
+
+    static PermissionTrie compile(Collection<? extends GrantedAuthority> authorities) {
+        List<String> names = new ArrayList<>(authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            names.add(authority.getAuthority());
+        }
+        return PermissionTrie.compile(names);
+    }
+}
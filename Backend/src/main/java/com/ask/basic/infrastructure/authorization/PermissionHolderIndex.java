@@ -0,0 +1,359 @@
+package com.ask.basic.infrastructure.authorization;
+
+import com.ask.basic.infrastructure.exceptions.NotFoundException;
+import com.ask.basic.infrastructure.tenancy.TenantIdentifierResolver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Answers "which users hold permission X" from memory: permission -> roles granting it directly ->
+ * those roles and their descendants -> users, with the users of each role kept as a bitmap of user
+ * ids. A tenant's index is loaded on its first query and then updated by the role and user write
+ * paths once their transaction commits, re-reading only the user or role that changed. Changes that
+ * commit while a tenant loads are kept and replayed on the new index before it is published.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class PermissionHolderIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantIdentifierResolver tenantIdentifierResolver;
+
+    private final Map<String, TenantIndex> tenants = new ConcurrentHashMap<>();
+    // tenants being loaded; guarded by itself, together with publishing into tenants
+    private final Map<String, Loading> loading = new HashMap<>();
+
+    public record Holders(long total, List<Long> userIds) {
+    }
+
+    public Holders findByPermission(String permission, int page, int size) {
+        TenantIndex index = index();
+        index.lock.readLock().lock();
+        try {
+            Long permissionId = index.permissionIds.get(permission);
+            if (permissionId == null) {
+                throw new NotFoundException("permission", permission);
+            }
+            Set<Long> permissionIds = new HashSet<>();
+            permissionIds.add(permissionId);
+            index.addPatternsImplying(List.of(permission), permissionIds);
+            return index.holders(permissionIds, page, size);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    public Holders findByGroup(String group, int page, int size) {
+        TenantIndex index = index();
+        index.lock.readLock().lock();
+        try {
+            List<String> names = index.permissionsByGroup.get(group);
+            if (names == null) {
+                throw new NotFoundException("permission group", group);
+            }
+            Set<Long> permissionIds = new HashSet<>();
+            names.forEach(name -> permissionIds.add(index.permissionIds.get(name)));
+            index.addPatternsImplying(names, permissionIds);
+            return index.holders(permissionIds, page, size);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    // The roles of a user were replaced
+    public void userChanged(Long userId) {
+        afterCommit(index -> {
+            List<Long> roleIds = jdbcTemplate.queryForList("select role_id from p_user_role where user_id = ?", Long.class, userId);
+            int bit = Math.toIntExact(userId);
+            index.usersByRole.values().forEach(users -> users.clear(bit));
+            roleIds.forEach(roleId -> index.usersByRole.computeIfAbsent(roleId, id -> new BitSet()).set(bit));
+        });
+    }
+
+    // The permissions or users of a role changed, or the role was deleted
+    public void roleChanged(Long roleId) {
+        afterCommit(index -> {
+            Set<Long> permissionIds = new HashSet<>(jdbcTemplate.queryForList(
+                    "select permission_id from p_role_permission where role_id = ?", Long.class, roleId));
+            BitSet users = new BitSet();
+            jdbcTemplate.query("select user_id from p_user_role where role_id = ?",
+                    rs -> { users.set(Math.toIntExact(rs.getLong(1))); }, roleId);
+
+            Set<Long> previous = index.permissionsByRole.remove(roleId);
+            if (previous != null) {
+                previous.forEach(permissionId -> index.rolesByPermission.get(permissionId).remove(roleId));
+            }
+            index.addGrants(roleId, permissionIds);
+            if (users.isEmpty()) {
+                index.usersByRole.remove(roleId);
+            } else {
+                index.usersByRole.put(roleId, users);
+            }
+        });
+    }
+
+    // Role parents changed; the closure is small next to the user links, so it is read again whole
+    public void hierarchyChanged() {
+        afterCommit(index -> index.descendantsByRole = loadDescendants(index.tenant));
+    }
+
+    // Permissions changed under every tenant; each index is loaded again on its next query
+    public void invalidate() {
+        synchronized (loading) {
+            tenants.clear();
+            loading.values().forEach(load -> load.stale = true);
+        }
+    }
+
+    private void afterCommit(IndexUpdate update) {
+        String tenant = tenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        Runnable apply = () -> {
+            TenantIndex index;
+            synchronized (loading) {
+                Loading load = loading.get(tenant);
+                if (load != null) {
+                    load.updates.add(update);
+                }
+                index = tenants.get(tenant);
+            }
+            // not loaded yet: the load replays it, or the first query reads the committed state anyway
+            if (index == null) {
+                return;
+            }
+            index.lock.writeLock().lock();
+            try {
+                update.apply(index);
+            } finally {
+                index.lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private TenantIndex index() {
+        String tenant = tenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        TenantIndex index = tenants.get(tenant);
+        if (index != null) {
+            return index;
+        }
+        Loading load;
+        Loading started = null;
+        synchronized (loading) {
+            index = tenants.get(tenant);
+            if (index != null) {
+                return index;
+            }
+            load = loading.get(tenant);
+            if (load == null) {
+                started = new Loading();
+                loading.put(tenant, started);
+            }
+        }
+        if (started == null) {
+            // another query is loading the tenant
+            try {
+                return load.loaded.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        return loadAndPublish(tenant, started);
+    }
+
+    // The queries run without any lock held; only the hand-over to readers is under the monitor
+    private TenantIndex loadAndPublish(String tenant, Loading load) {
+        try {
+            TenantIndex index = load(tenant);
+            while (true) {
+                List<IndexUpdate> replay;
+                synchronized (loading) {
+                    if (load.stale) {
+                        load.stale = false;
+                        load.updates.clear();
+                        replay = null;
+                    } else if (load.updates.isEmpty()) {
+                        loading.remove(tenant);
+                        tenants.put(tenant, index);
+                        load.loaded.complete(index);
+                        return index;
+                    } else {
+                        replay = new ArrayList<>(load.updates);
+                        load.updates.clear();
+                    }
+                }
+                if (replay == null) {
+                    index = load(tenant);
+                } else {
+                    // not published yet, so no reader to lock out
+                    for (IndexUpdate update : replay) {
+                        update.apply(index);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            synchronized (loading) {
+                loading.remove(tenant);
+            }
+            load.loaded.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private TenantIndex load(String tenant) {
+        long started = System.currentTimeMillis();
+        TenantIndex index = new TenantIndex(tenant);
+        jdbcTemplate.query("select id, name, group_name from p_permission", rs -> {
+            String name = rs.getString("name");
+            long id = rs.getLong("id");
+            index.permissionIds.put(name, id);
+            index.permissionsByGroup.computeIfAbsent(rs.getString("group_name"), group -> new ArrayList<>()).add(name);
+            if (PermissionTrie.isPattern(name)) {
+                index.patternIds.put(name, id);
+            }
+        });
+
+        Map<Long, Set<Long>> grants = new HashMap<>();
+        jdbcTemplate.query("select rp.role_id, rp.permission_id from p_role_permission rp " +
+                "join p_role r on r.id = rp.role_id where r.tenant_id = ?", rs -> {
+            grants.computeIfAbsent(rs.getLong(1), id -> new HashSet<>()).add(rs.getLong(2));
+        }, tenant);
+        grants.forEach(index::addGrants);
+
+        jdbcTemplate.query("select ur.role_id, ur.user_id from p_user_role ur " +
+                "join p_role r on r.id = ur.role_id where r.tenant_id = ?", rs -> {
+            index.usersByRole.computeIfAbsent(rs.getLong(1), id -> new BitSet()).set(Math.toIntExact(rs.getLong(2)));
+        }, tenant);
+
+        index.descendantsByRole = loadDescendants(tenant);
+        log.info("Permission holder index of tenant '{}' loaded in {} ms: {} roles with users",
+                tenant, System.currentTimeMillis() - started, index.usersByRole.size());
+        return index;
+    }
+
+    private Map<Long, Set<Long>> loadDescendants(String tenant) {
+        Map<Long, Set<Long>> descendants = new HashMap<>();
+        jdbcTemplate.query("select c.ancestor_id, c.descendant_id from p_role_closure c " +
+                "join p_role r on r.id = c.ancestor_id where r.tenant_id = ?", rs -> {
+            descendants.computeIfAbsent(rs.getLong(1), id -> new HashSet<>()).add(rs.getLong(2));
+        }, tenant);
+        return descendants;
+    }
+
+    @FunctionalInterface
+    private interface IndexUpdate {
+        void apply(TenantIndex index);
+    }
+
+    private static final class Loading {
+        final CompletableFuture<TenantIndex> loaded = new CompletableFuture<>();
+        // committed during the load, applied to it before it is published
+        final List<IndexUpdate> updates = new ArrayList<>();
+        // the catalog changed during the load, which is then read again
+        boolean stale;
+    }
+
+    private static final class TenantIndex {
+        final String tenant;
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<String, Long> permissionIds = new HashMap<>();
+        final Map<String, List<String>> permissionsByGroup = new HashMap<>();
+        // permissions ending in a wildcard segment, by name
+        final Map<String, Long> patternIds = new HashMap<>();
+        final Map<Long, Set<Long>> rolesByPermission = new HashMap<>();
+        final Map<Long, Set<Long>> permissionsByRole = new HashMap<>();
+        final Map<Long, BitSet> usersByRole = new HashMap<>();
+        Map<Long, Set<Long>> descendantsByRole = Map.of();
+
+        TenantIndex(String tenant) {
+            this.tenant = tenant;
+        }
+
+        void addGrants(Long roleId, Set<Long> permissionIds) {
+            if (permissionIds.isEmpty()) {
+                return;
+            }
+            permissionsByRole.put(roleId, permissionIds);
+            permissionIds.forEach(permissionId -> rolesByPermission.computeIfAbsent(permissionId, id -> new HashSet<>()).add(roleId));
+        }
+
+        // The patterns implying a name are its prefixes up to a separator plus the wildcard, as PermissionTrie matches them
+        void addPatternsImplying(Collection<String> names, Set<Long> permissionIds) {
+            if (patternIds.isEmpty()) {
+                return;
+            }
+            for (String name : names) {
+                int start = 0;
+                while (start < name.length()) {
+                    Long patternId = patternIds.get(name.substring(0, start) + PermissionTrie.WILDCARD);
+                    if (patternId != null) {
+                        permissionIds.add(patternId);
+                    }
+                    int separator = name.indexOf(PermissionTrie.SEPARATOR, start);
+                    if (separator < 0) {
+                        break;
+                    }
+                    start = separator + 1;
+                }
+            }
+        }
+
+        Holders holders(Set<Long> permissionIds, int page, int size) {
+            BitSet users = new BitSet();
+            Set<Long> seen = new HashSet<>();
+            for (Long permissionId : permissionIds) {
+                for (Long roleId : rolesByPermission.getOrDefault(permissionId, Set.of())) {
+                    addUsers(roleId, seen, users);
+                    for (Long descendantId : descendantsByRole.getOrDefault(roleId, Set.of())) {
+                        addUsers(descendantId, seen, users);
+                    }
+                }
+            }
+
+            List<Long> userIds = new ArrayList<>(size);
+            int bit = users.nextSetBit(0);
+            for (long skip = (long) page * size; bit >= 0 && skip > 0; skip--) {
+                bit = users.nextSetBit(bit + 1);
+            }
+            while (bit >= 0 && userIds.size() < size) {
+                userIds.add((long) bit);
+                bit = users.nextSetBit(bit + 1);
+            }
+            return new Holders(users.cardinality(), userIds);
+        }
+
+        private void addUsers(Long roleId, Set<Long> seen, BitSet users) {
+            BitSet holders = usersByRole.get(roleId);
+            if (holders != null && seen.add(roleId)) {
+                users.or(holders);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ask.basic.infrastructure.authorization;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A user's grants compiled into a character trie. Permission names are {@code :} separated
+ * segments ({@code group:action}); a grant ending in a {@code *} segment ({@code users:*},
+ * {@code reports:export:*} or just {@code *}) covers every permission below that prefix.
+ * {@link #implies(String)} walks the permission once, so a check costs O(length of the permission)
+ * whatever the number of grants, and allocates nothing.
+ */
+public final class PermissionTrie {
+
+    public static final char SEPARATOR = ':';
+    public static final char WILDCARD = '*';
+
+    private final Node root;
+    private final int grants;
+
+    private PermissionTrie(Node root, int grants) {
+        this.root = root;
+        this.grants = grants;
+    }
+
+    public static PermissionTrie compile(Collection<String> grantNames) {
+        Node root = new Node();
+        int grants = 0;
+        for (String grant : grantNames) {
+            if (grant == null || grant.isEmpty()) {
+                continue;
+            }
+            int length = grant.length();
+            boolean wildcard = isPattern(grant);
+            Node node = root;
+            for (int i = 0, end = wildcard ? length - 1 : length; i < end; i++) {
+                node = node.childOrAdd(grant.charAt(i));
+            }
+            if (wildcard) {
+                node.wildcard = true;
+            } else {
+                node.terminal = true;
+            }
+            grants++;
+        }
+        return new PermissionTrie(root, grants);
+    }
+
+    // "*" only counts as a wildcard when it is a whole trailing segment, anywhere else it is a plain character
+    public static boolean isPattern(String grant) {
+        int length = grant.length();
+        return length > 0 && grant.charAt(length - 1) == WILDCARD
+                && (length == 1 || grant.charAt(length - 2) == SEPARATOR);
+    }
+
+    public boolean implies(String permission) {
+        if (permission == null || permission.isEmpty()) {
+            return false;
+        }
+        Node node = root;
+        for (int i = 0, length = permission.length(); i < length; i++) {
+            if (node.wildcard) {
+                return true;
+            }
+            node = node.child(permission.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+
+    // Number of grants compiled, duplicates included
+    public int size() {
+        return grants;
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // sorted, searched with a binary search
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private boolean terminal;
+        private boolean wildcard;
+
+        Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrAdd(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            Node child = new Node();
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ask.basic.infrastructure.authorization;
+
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+
+import java.io.Serializable;
+
+/**
+ * Backs {@code hasPermission(...)} in {@code @PreAuthorize} with the caller's {@link PermissionTrie}:
+ * <ul>
+ *     <li>{@code hasPermission(null, 'users:read')} checks the permission as written</li>
+ *     <li>{@code hasPermission('users', 'read')} checks {@code users:read}</li>
+ *     <li>{@code hasPermission(#id, 'users', 'read')} checks {@code users:read} as well</li>
+ * </ul>
+ */
+public class TriePermissionEvaluator implements PermissionEvaluator {
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Object target, Object permission) {
+        if (!(permission instanceof String action)) {
+            return false;
+        }
+        String name = target instanceof String group ? group + PermissionTrie.SEPARATOR + action : action;
+        return implies(authentication, name);
+    }
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType, Object permission) {
+        if (!(permission instanceof String action) || targetType == null) {
+            return false;
+        }
+        return implies(authentication, targetType + PermissionTrie.SEPARATOR + action);
+    }
+
+    private static boolean implies(Authentication authentication, String permission) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        return grantsOf(authentication).implies(permission);
+    }
+
+    static PermissionTrie grantsOf(Authentication authentication) {
+        if (authentication instanceof PermissionAuthenticationToken token) {
+            return token.getGrants();
+        }
+        // any other token (tests, anonymous) is compiled for this check only
+        return PermissionAuthenticationToken.compile(authentication.getAuthorities());
+    }
+}
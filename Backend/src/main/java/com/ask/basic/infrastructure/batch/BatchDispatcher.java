@@ -0,0 +1,328 @@
+package com.ask.basic.infrastructure.batch;
+
+import com.ask.basic.auth.data.BatchRequest;
+import com.ask.basic.infrastructure.admission.RequestClass;
+import com.ask.basic.infrastructure.exceptions.BaseCustomExceptionHandler;
+import com.ask.basic.infrastructure.exceptions.NotFoundException;
+import com.ask.basic.infrastructure.exceptions.ValidationException;
+import com.ask.basic.infrastructure.response.ApiResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Conventions;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ValueConstants;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+import org.springframework.web.servlet.mvc.condition.NameValueExpression;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs a list of operations of one controller in-process, within the request that carries them, so
+ * the filters (authentication, tenancy, rate limiting) run once for the whole list. Operations are
+ * matched against the controller's own request mappings and bound as Spring MVC would bind them:
+ * path variables, query parameters, and a JSON body validated when the parameter is {@code @Valid}.
+ * A failing operation gets the {@link ApiResponse} {@link BaseCustomExceptionHandler} would have
+ * sent for it. In a transactional batch each operation is flushed before the next runs, so reads that
+ * bypass the session see it, and a rollback clears the tenant's caches, which reads in the batch may
+ * have filled with what was rolled back.
+ */
+@Component
+@EnableConfigurationProperties(BatchProperties.class)
+public class BatchDispatcher {
+
+    private final BatchProperties properties;
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final BaseCustomExceptionHandler exceptionHandler;
+    private final ObjectMapper objectMapper;
+    private final SpringValidatorAdapter validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+    private final ExceptionHandlerMethodResolver exceptionHandlerMethods =
+            new ExceptionHandlerMethodResolver(BaseCustomExceptionHandler.class);
+    private final Map<Class<?>, List<Route>> routes = new ConcurrentHashMap<>();
+
+    public BatchDispatcher(BatchProperties properties,
+                           @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                           BaseCustomExceptionHandler exceptionHandler, ObjectMapper objectMapper,
+                           jakarta.validation.Validator validator, PlatformTransactionManager transactionManager,
+                           EntityManager entityManager, CacheManager cacheManager) {
+        this.properties = properties;
+        this.handlerMapping = handlerMapping;
+        this.exceptionHandler = exceptionHandler;
+        this.objectMapper = objectMapper;
+        this.validator = new SpringValidatorAdapter(validator);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.cacheManager = cacheManager;
+    }
+
+    // One result per operation, in order. In a transactional batch the first failure rolls back the
+    // operations before it and the rest are not run.
+    public List<ApiResponse<?>> execute(Class<?> controllerType, BatchRequest request, HttpServletRequest servletRequest) {
+        List<BatchRequest.Operation> operations = request.getOperations();
+        if (operations.size() > properties.getMaxOperations()) {
+            throw new ValidationException("A batch holds at most " + properties.getMaxOperations() + " operations",
+                    "BATCH_TOO_LARGE");
+        }
+        List<Route> controllerRoutes = routes.computeIfAbsent(controllerType, this::routesOf);
+        List<ApiResponse<?>> results = new ArrayList<>(operations.size());
+        if (!request.isTransactional()) {
+            operations.forEach(operation -> results.add(run(controllerRoutes, operation, servletRequest, false)));
+            return results;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (BatchRequest.Operation operation : operations) {
+                ApiResponse<?> result = run(controllerRoutes, operation, servletRequest, true);
+                results.add(result);
+                if (!result.isSuccess()) {
+                    status.setRollbackOnly();
+                    return;
+                }
+            }
+        });
+        int failed = results.size() - 1;
+        if (results.get(failed).isSuccess()) {
+            return results;
+        }
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        for (int i = 0; i < failed; i++) {
+            results.set(i, ApiResponse.error("Rolled back: operation " + failed + " failed", "ROLLED_BACK",
+                    operations.get(i).getPath()));
+        }
+        for (int i = failed + 1; i < operations.size(); i++) {
+            results.add(ApiResponse.error("Not run: operation " + failed + " failed", "NOT_RUN",
+                    operations.get(i).getPath()));
+        }
+        return results;
+    }
+
+    private ApiResponse<?> run(List<Route> controllerRoutes, BatchRequest.Operation operation, HttpServletRequest servletRequest,
+                               boolean flush) {
+        UriComponents uri = UriComponentsBuilder.fromUriString(operation.getPath()).build();
+        String path = uri.getPath();
+        // error responses and error logging name the operation's path, not the batch's
+        WebRequest webRequest = new ServletWebRequest(new HttpServletRequestWrapper(servletRequest) {
+            @Override
+            public String getRequestURI() {
+                return path;
+            }
+        });
+        try {
+            RequestMethod method = RequestMethod.valueOf(operation.getMethod().toUpperCase(Locale.ROOT));
+            MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+            uri.getQueryParams().forEach((name, values) -> values.forEach(value ->
+                    params.add(name, value != null ? UriUtils.decode(value, StandardCharsets.UTF_8) : "")));
+            PathContainer pathContainer = PathContainer.parsePath(path != null ? path : "");
+
+            for (Route route : controllerRoutes) {
+                Map<String, String> uriVariables = route.match(method, pathContainer, params);
+                if (uriVariables != null) {
+                    HandlerMethod handlerMethod = route.handlerMethod();
+                    Object[] args = arguments(handlerMethod, uriVariables, params, operation.getBody());
+                    Object result = handlerMethod.getMethod().invoke(handlerMethod.getBean(), args);
+                    if (flush) {
+                        entityManager.flush();
+                    }
+                    return result instanceof ApiResponse<?> response ? response : ApiResponse.success(result);
+                }
+            }
+            throw new NotFoundException("operation", operation.getMethod() + " " + path);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            return error((Exception) e.getCause(), webRequest);
+        } catch (Exception e) {
+            return error(e, webRequest);
+        }
+    }
+
+    private Object[] arguments(HandlerMethod handlerMethod, Map<String, String> uriVariables,
+                               MultiValueMap<String, String> params, JsonNode body) throws MethodArgumentNotValidException {
+        MethodParameter[] parameters = handlerMethod.getMethodParameters();
+        Object[] args = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            MethodParameter parameter = parameters[i];
+            parameter.initParameterNameDiscovery(new DefaultParameterNameDiscoverer());
+            RequestBody requestBody = parameter.getParameterAnnotation(RequestBody.class);
+            PathVariable pathVariable = parameter.getParameterAnnotation(PathVariable.class);
+            RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+            if (requestBody != null) {
+                args[i] = body(parameter, requestBody.required(), body);
+            } else if (pathVariable != null) {
+                String name = name(pathVariable.value(), pathVariable.name(), parameter);
+                args[i] = convert(uriVariables.get(name), name, parameter);
+            } else if (requestParam != null) {
+                String name = name(requestParam.value(), requestParam.name(), parameter);
+                String value = params.getFirst(name);
+                if (value == null && !ValueConstants.DEFAULT_NONE.equals(requestParam.defaultValue())) {
+                    value = requestParam.defaultValue();
+                }
+                if (value == null && requestParam.required()) {
+                    throw new IllegalArgumentException("Required parameter '" + name + "' is missing");
+                }
+                args[i] = convert(value, name, parameter);
+            } else {
+                throw new IllegalArgumentException("Operation " + handlerMethod.getMethod().getName() + " cannot be batched");
+            }
+        }
+        return args;
+    }
+
+    private Object body(MethodParameter parameter, boolean required, JsonNode body) throws MethodArgumentNotValidException {
+        if (body == null || body.isNull()) {
+            if (required) {
+                throw new IllegalArgumentException("Required request body is missing");
+            }
+            return null;
+        }
+        Object value = objectMapper.convertValue(body, objectMapper.constructType(parameter.getGenericParameterType()));
+        if (parameter.hasParameterAnnotation(Valid.class) || parameter.hasParameterAnnotation(Validated.class)) {
+            BeanPropertyBindingResult errors = new BeanPropertyBindingResult(value, Conventions.getVariableNameForParameter(parameter));
+            validator.validate(value, errors);
+            if (errors.hasErrors()) {
+                throw new MethodArgumentNotValidException(parameter, errors);
+            }
+        }
+        return value;
+    }
+
+    private Object convert(String value, String name, MethodParameter parameter) {
+        try {
+            return conversionService.convert(value, TypeDescriptor.valueOf(String.class), new TypeDescriptor(parameter));
+        } catch (ConversionException e) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' for '" + name + "'");
+        }
+    }
+
+    private static String name(String value, String name, MethodParameter parameter) {
+        if (!value.isEmpty()) {
+            return value;
+        }
+        return !name.isEmpty() ? name : parameter.getParameterName();
+    }
+
+    private ApiResponse<?> error(Exception exception, WebRequest webRequest) {
+        Method handler = exceptionHandlerMethods.resolveMethodByThrowable(exception);
+        if (handler != null) {
+            Class<?>[] types = handler.getParameterTypes();
+            Object[] args = new Object[types.length];
+            for (int i = 0; i < types.length; i++) {
+                args[i] = types[i].isInstance(exception) ? exception : types[i].isInstance(webRequest) ? webRequest : null;
+            }
+            try {
+                if (handler.invoke(exceptionHandler, args) instanceof ResponseEntity<?> entity
+                        && entity.getBody() instanceof ApiResponse<?> response) {
+                    return response;
+                }
+            } catch (ReflectiveOperationException ignored) {
+                // fall through to the generic error below
+            }
+        }
+        return ApiResponse.error("An unexpected error occurred", "INTERNAL_ERROR",
+                ((ServletWebRequest) webRequest).getRequest().getRequestURI());
+    }
+
+    // Literal paths before templates; of two mappings of one path, the one requiring more parameters first
+    private List<Route> routesOf(Class<?> controllerType) {
+        List<Route> controllerRoutes = new ArrayList<>();
+        handlerMapping.getHandlerMethods().forEach((info, handlerMethod) -> {
+            if (handlerMethod.getBeanType() != controllerType || info.getPathPatternsCondition() == null) {
+                return;
+            }
+            HandlerMethod resolved = handlerMethod.createWithResolvedBean();
+            for (PathPattern pattern : info.getPathPatternsCondition().getPatterns()) {
+                // login and registration only run under their own rate limit and bulkhead
+                if (isLogin(info.getMethodsCondition().getMethods(), pattern)) {
+                    continue;
+                }
+                controllerRoutes.add(new Route(info.getMethodsCondition().getMethods(), pattern,
+                        info.getParamsCondition().getExpressions(), resolved));
+            }
+        });
+        controllerRoutes.sort(Comparator.comparing(Route::pattern, PathPattern.SPECIFICITY_COMPARATOR)
+                .thenComparing(route -> -route.params().size()));
+        return List.copyOf(controllerRoutes);
+    }
+
+    private static boolean isLogin(Set<RequestMethod> methods, PathPattern pattern) {
+        if (methods.isEmpty()) {
+            return RequestClass.of(RequestMethod.POST.name(), pattern.getPatternString()) == RequestClass.LOGIN;
+        }
+        return methods.stream().anyMatch(method -> RequestClass.of(method.name(), pattern.getPatternString()) == RequestClass.LOGIN);
+    }
+
+    private record Route(Set<RequestMethod> methods, PathPattern pattern, Set<NameValueExpression<String>> params,
+                         HandlerMethod handlerMethod) {
+
+        // The URI variables when the operation maps here, null otherwise
+        Map<String, String> match(RequestMethod method, PathContainer path, MultiValueMap<String, String> queryParams) {
+            if (!methods.isEmpty() && !methods.contains(method)) {
+                return null;
+            }
+            for (NameValueExpression<String> expression : params) {
+                boolean present = expression.getValue() == null
+                        ? queryParams.containsKey(expression.getName())
+                        : expression.getValue().equals(queryParams.getFirst(expression.getName()));
+                if (present == expression.isNegated()) {
+                    return null;
+                }
+            }
+            PathPattern.PathMatchInfo info = pattern.matchAndExtract(path);
+            return info != null ? info.getUriVariables() : null;
+        }
+    }
+}
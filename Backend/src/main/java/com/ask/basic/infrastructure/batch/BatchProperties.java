@@ -0,0 +1,16 @@
+package com.ask.basic.infrastructure.batch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits of {@code POST /api/v1/auth/batch}, e.g.
+ * <pre>
+ * batch.max-operations=20
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "batch")
+public class BatchProperties {
+    private int maxOperations = 20;
+}
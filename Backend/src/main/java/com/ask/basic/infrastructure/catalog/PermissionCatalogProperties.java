@@ -0,0 +1,38 @@
+package com.ask.basic.infrastructure.catalog;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The permissions the application knows about, declared in {@code permission-catalog.yml}:
+ * <pre>
+ * permission-catalog:
+ *   groups:
+ *     users:
+ *       - name: users:read
+ *       - name: users:update
+ *         previous-names: [users:edit]
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "permission-catalog")
+public class PermissionCatalogProperties {
+    private boolean enabled = true;
+    // Rows of p_permission missing from the catalog are deactivated, never deleted, so role links survive;
+    // off by default, as a catalog that does not list every permission yet would deactivate the rest
+    private boolean deactivateMissing = false;
+    // group name -> permissions of the group, stored in p_permission.group_name
+    private Map<String, List<Entry>> groups = new LinkedHashMap<>();
+
+    @Data
+    public static class Entry {
+        private String name;
+        // A row still carrying one of these names is renamed in place and keeps its id and role links
+        private List<String> previousNames = new ArrayList<>();
+    }
+}
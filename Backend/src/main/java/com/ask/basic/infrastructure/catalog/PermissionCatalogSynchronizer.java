@@ -0,0 +1,138 @@
+package com.ask.basic.infrastructure.catalog;
+
+import com.ask.basic.infrastructure.invalidation.InvalidationBus;
+import com.ask.basic.infrastructure.tenancy.TenantCacheManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Brings {@code p_permission} in line with the {@link PermissionCatalogProperties catalog} once per
+ * boot. The table is read with one query and diffed in memory; all inserts go in one JDBC batch and
+ * all renames, regroupings, reactivations and deactivations in another, inside one transaction.
+ * An unchanged catalog costs the single read.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(PermissionCatalogProperties.class)
+public class PermissionCatalogSynchronizer {
+
+    private final PermissionCatalogProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InvalidationBus invalidationBus;
+    private final CacheManager cacheManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void synchronize() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Changes changes = transactionTemplate.execute(status -> apply(diff(load())));
+        if ((!changes.inserts.isEmpty() || !changes.updates.isEmpty())
+                && cacheManager instanceof TenantCacheManager tenantCacheManager) {
+            // authorities skip inactive permissions, and the trees show names and groups
+            tenantCacheManager.clear();
+        }
+        log.info("Permission catalog synchronized in {} ms: {} inserted, {} renamed, {} updated, {} deactivated, {} unchanged",
+                System.currentTimeMillis() - started, changes.inserts.size(), changes.renamed,
+                changes.updates.size() - changes.renamed - changes.deactivated, changes.deactivated, changes.unchanged);
+    }
+
+    private List<Row> load() {
+        return jdbcTemplate.query("select id, name, group_name, is_active from p_permission order by id",
+                (rs, i) -> new Row(rs.getLong("id"), rs.getString("name"), rs.getString("group_name"), rs.getBoolean("is_active")));
+    }
+
+    private Changes diff(List<Row> rows) {
+        // the lowest id wins when a name appears twice; the other rows count as missing from the catalog
+        Map<String, Row> byName = new HashMap<>();
+        rows.forEach(row -> byName.putIfAbsent(row.name(), row));
+
+        Changes changes = new Changes();
+        Set<String> declared = new HashSet<>();
+        Set<Long> claimed = new HashSet<>();
+        properties.getGroups().forEach((group, entries) -> {
+            for (PermissionCatalogProperties.Entry entry : entries) {
+                if (!declared.add(entry.getName())) {
+                    throw new IllegalStateException("Permission '" + entry.getName() + "' is declared twice in the catalog");
+                }
+                Row row = byName.get(entry.getName());
+                boolean renamed = false;
+                if (row == null || claimed.contains(row.id())) {
+                    row = null;
+                    for (String previousName : entry.getPreviousNames()) {
+                        Row previous = byName.get(previousName);
+                        if (previous != null && !claimed.contains(previous.id())) {
+                            row = previous;
+                            renamed = true;
+                            break;
+                        }
+                    }
+                }
+                if (row == null) {
+                    changes.inserts.add(new Object[]{entry.getName(), group, true});
+                    continue;
+                }
+                claimed.add(row.id());
+                if (renamed || !Objects.equals(row.groupName(), group) || !row.active()) {
+                    changes.updates.add(new Object[]{entry.getName(), group, true, row.id()});
+                    changes.renamed += renamed ? 1 : 0;
+                } else {
+                    changes.unchanged++;
+                }
+            }
+        });
+
+        if (properties.isDeactivateMissing()) {
+            for (Row row : rows) {
+                if (row.active() && !claimed.contains(row.id())) {
+                    changes.updates.add(new Object[]{row.name(), row.groupName(), false, row.id()});
+                    changes.deactivated++;
+                }
+            }
+        }
+        return changes;
+    }
+
+    private Changes apply(Changes changes) {
+        if (!changes.inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into p_permission (name, group_name, is_active) values (?, ?, ?)", changes.inserts);
+        }
+        if (!changes.updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update p_permission set name = ?, group_name = ?, is_active = ? where id = ?", changes.updates);
+        }
+        if (!changes.inserts.isEmpty() || !changes.updates.isEmpty()) {
+            // nodes still running the previous catalog drop what they hold of it
+            invalidationBus.catalogChanged();
+        }
+        return changes;
+    }
+
+    private record Row(long id, String name, String groupName, boolean active) {
+    }
+
+    private static final class Changes {
+        private final List<Object[]> inserts = new ArrayList<>();
+        private final List<Object[]> updates = new ArrayList<>();
+        private int renamed;
+        private int deactivated;
+        private int unchanged;
+    }
+}
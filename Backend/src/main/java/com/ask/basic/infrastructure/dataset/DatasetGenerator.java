@@ -0,0 +1,183 @@
+package com.ask.basic.infrastructure.dataset;
+
+import com.ask.basic.auth.service.EffectivePermissionService;
+import com.ask.basic.infrastructure.invalidation.InvalidationBus;
+import com.ask.basic.infrastructure.invalidation.InvalidationHandler;
+import com.ask.basic.infrastructure.statistics.DirectoryStatistics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Bulk-loads a deterministic directory into p_permission, p_role, p_app_user, p_role_permission
+ * and p_user_role with JDBC batches generated on the fly, so no row list is ever materialised.
+ * Usable as a bean (CLI profile, load tests) or constructed directly around any JdbcTemplate; the
+ * effective permissions of the tenant are rebuilt once the links are in.
+ * On PostgreSQL add {@code reWriteBatchedInserts=true} to the JDBC URL for multi-row inserts.
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class DatasetGenerator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final EffectivePermissionService effectivePermissionService;
+    private final DirectoryStatistics directoryStatistics;
+    private final InvalidationHandler invalidationHandler;
+    private final InvalidationBus invalidationBus;
+
+    public GeneratedDataset generate(DatasetSpec spec) {
+        long started = System.currentTimeMillis();
+        SplittableRandom root = new SplittableRandom(spec.getSeed());
+        SplittableRandom statusRandom = root.split();
+        SplittableRandom rolePermissionRandom = root.split();
+        SplittableRandom userRoleRandom = root.split();
+
+        insertPermissions(spec);
+        insertRoles(spec);
+        insertUsers(spec, statusRandom);
+
+        long[] permissionIds = ids("select id from p_permission where name like ? order by id", "%:" + spec.getTag() + "-permission%");
+        long[] roleIds = ids("select id from p_role where tenant_id = ? and name like ? order by id",
+                spec.getTenant(), spec.getTag() + "-role-%");
+        long[] userIds = ids("select id from p_app_user where tenant_id = ? and email like ? order by id",
+                spec.getTenant(), spec.getTag() + "-user%@school.test");
+
+        long rolePermissionLinks = link(spec, "insert into p_role_permission (role_id, permission_id) values (?, ?)",
+                roleIds, permissionIds, spec.getPermissionsPerRole(), spec.getPermissionDistribution(), rolePermissionRandom);
+        long userRoleLinks = link(spec, "insert into p_user_role (user_id, role_id) values (?, ?)",
+                userIds, roleIds, spec.getRolesPerUser(), spec.getRoleDistribution(), userRoleRandom);
+        // the links went in behind the services' back
+        this.effectivePermissionService.rebuild(spec.getTenant());
+        this.directoryStatistics.invalidate(spec.getTenant());
+        // the trees, authorities and holder index, and the user directory
+        this.invalidationHandler.flushAll();
+        // other nodes drop everything too; the generated permissions are new to every tenant
+        this.invalidationBus.catalogChanged();
+
+        GeneratedDataset dataset = new GeneratedDataset(spec, userIds, roleIds, permissionIds,
+                userRoleLinks, rolePermissionLinks, System.currentTimeMillis() - started);
+        log.info("Generated dataset '{}': {} users, {} roles, {} permissions, {} user-role and {} role-permission links in {} ms",
+                spec.getTag(), userIds.length, roleIds.length, permissionIds.length,
+                userRoleLinks, rolePermissionLinks, dataset.getElapsedMillis());
+        return dataset;
+    }
+
+    private void insertPermissions(DatasetSpec spec) {
+        batch(spec, "insert into p_permission (name, group_name, is_active) values (?, ?, ?)", spec.getPermissions(),
+                (ps, i) -> {
+                    ps.setString(1, spec.permissionName(i));
+                    ps.setString(2, spec.groupName(i));
+                    ps.setBoolean(3, true);
+                });
+    }
+
+    private void insertRoles(DatasetSpec spec) {
+        batch(spec, "insert into p_role (tenant_id, name, is_active) values (?, ?, ?)", spec.getRoles(),
+                (ps, i) -> {
+                    ps.setString(1, spec.getTenant());
+                    ps.setString(2, spec.roleName(i));
+                    ps.setBoolean(3, true);
+                });
+    }
+
+    private void insertUsers(DatasetSpec spec, SplittableRandom random) {
+        // BCrypt is deliberately slow, so every generated user shares one hash
+        String passwordHash = passwordEncoder.encode(spec.getPassword());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        batch(spec, "insert into p_app_user (tenant_id, first_name, last_name, display_name, email, password, is_active, "
+                        + "account_status, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", spec.getUsers(),
+                (ps, i) -> {
+                    boolean active = random.nextDouble() >= spec.getInactiveRatio();
+                    ps.setString(1, spec.getTenant());
+                    ps.setString(2, "First" + i);
+                    ps.setString(3, "Last" + i);
+                    ps.setString(4, "First" + i + " Last" + i);
+                    ps.setString(5, spec.email(i));
+                    ps.setString(6, passwordHash);
+                    ps.setBoolean(7, active);
+                    ps.setString(8, active ? "ACTIVE" : "INACTIVE");
+                    ps.setTimestamp(9, now);
+                    ps.setTimestamp(10, now);
+                });
+    }
+
+    // Links every owner to `perOwner` distinct targets drawn from the distribution
+    private long link(DatasetSpec spec, String sql, long[] owners, long[] targets, int perOwner,
+                      Distribution distribution, SplittableRandom random) {
+        if (owners.length == 0 || targets.length == 0 || perOwner <= 0) {
+            return 0;
+        }
+        int linksPerOwner = Math.min(perOwner, targets.length);
+        Distribution.Sampler sampler = distribution.sampler(targets.length);
+        int[] picked = new int[linksPerOwner];
+
+        batch(spec, sql, owners.length * linksPerOwner, (ps, i) -> {
+            int owner = i / linksPerOwner;
+            int slot = i % linksPerOwner;
+            if (slot == 0) {
+                pickDistinct(sampler, random, picked, targets.length);
+            }
+            ps.setLong(1, owners[owner]);
+            ps.setLong(2, targets[picked[slot]]);
+        });
+        return (long) owners.length * linksPerOwner;
+    }
+
+    private static void pickDistinct(Distribution.Sampler sampler, SplittableRandom random, int[] picked, int size) {
+        for (int slot = 0; slot < picked.length; slot++) {
+            int candidate = sampler.next(random);
+            // Skewed samplers repeat popular targets; fall through to the next free index instead of retrying forever
+            while (contains(picked, slot, candidate)) {
+                candidate = (candidate + 1) % size;
+            }
+            picked[slot] = candidate;
+        }
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void batch(DatasetSpec spec, String sql, int rows, RowWriter writer) {
+        for (int from = 0; from < rows; from += spec.getBatchSize()) {
+            int offset = from;
+            int size = Math.min(spec.getBatchSize(), rows - from);
+            this.jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    writer.write(ps, offset + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    private long[] ids(String sql, Object... args) {
+        return this.jdbcTemplate.queryForList(sql, Long.class, args).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PreparedStatement ps, int index) throws SQLException;
+    }
+}
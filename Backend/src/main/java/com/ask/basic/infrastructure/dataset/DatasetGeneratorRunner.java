@@ -0,0 +1,42 @@
+package com.ask.basic.infrastructure.dataset;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * CLI entry point: {@code java -jar basic.war --spring.profiles.active=generate-data --dataset.users=200000}.
+ * Every {@link DatasetSpec} property can be set under the {@code dataset.} prefix. The application
+ * exits once the data is written unless {@code dataset.exit-after-generation=false}.
+ */
+@Configuration
+@Profile("generate-data")
+@RequiredArgsConstructor
+public class DatasetGeneratorRunner {
+
+    private final ApplicationContext applicationContext;
+
+    @Bean
+    @ConfigurationProperties(prefix = "dataset")
+    DatasetSpec datasetSpec() {
+        return new DatasetSpec();
+    }
+
+    @Bean
+    ApplicationRunner generateDataset(DatasetGenerator generator, DatasetSpec datasetSpec,
+                                      @Value("${dataset.exit-after-generation:true}") boolean exitAfterGeneration) {
+        return (ApplicationArguments args) -> {
+            generator.generate(datasetSpec);
+            if (exitAfterGeneration) {
+                System.exit(SpringApplication.exit(applicationContext, () -> 0));
+            }
+        };
+    }
+}
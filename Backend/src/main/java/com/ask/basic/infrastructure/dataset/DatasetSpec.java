@@ -0,0 +1,62 @@
+package com.ask.basic.infrastructure.dataset;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Shape of a generated directory. Two runs with the same spec produce the same rows; the
+ * {@code tag} keeps e-mails and role names of separate runs against one database apart.
+ * Users and roles are created in {@code tenant}; permissions are global.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetSpec {
+    @Builder.Default
+    private String tag = "gen";
+    @Builder.Default
+    private String tenant = "default";
+    @Builder.Default
+    private long seed = 42L;
+    @Builder.Default
+    private int users = 10_000;
+    @Builder.Default
+    private int roles = 100;
+    @Builder.Default
+    private int permissions = 500;
+    @Builder.Default
+    private int permissionGroups = 25;
+    @Builder.Default
+    private int permissionsPerRole = 30;
+    @Builder.Default
+    private int rolesPerUser = 2;
+    @Builder.Default
+    private Distribution roleDistribution = Distribution.ZIPF;
+    @Builder.Default
+    private Distribution permissionDistribution = Distribution.UNIFORM;
+    @Builder.Default
+    private double inactiveRatio = 0.05;
+    @Builder.Default
+    private String password = "12345678";
+    @Builder.Default
+    private int batchSize = 5_000;
+
+    public String email(int userIndex) {
+        return tag + "-user" + userIndex + "@school.test";
+    }
+
+    public String roleName(int roleIndex) {
+        return tag + "-role-" + roleIndex;
+    }
+
+    public String permissionName(int permissionIndex) {
+        return groupName(permissionIndex) + ":" + tag + "-permission" + permissionIndex;
+    }
+
+    public String groupName(int permissionIndex) {
+        return "group" + (permissionIndex % permissionGroups);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ask.basic.infrastructure.dataset;
+
+import java.util.SplittableRandom;
+
+/**
+ * How links are spread over their targets. {@code ZIPF} makes a few roles (or permissions) very
+ * popular and leaves a long tail, which is what real school directories look like.
+ */
+public enum Distribution {
+    UNIFORM,
+    ZIPF;
+
+    private static final double ZIPF_EXPONENT = 1.07;
+
+    public Sampler sampler(int size) {
+        return this == UNIFORM ? random -> random.nextInt(size) : new ZipfSampler(size);
+    }
+
+    @FunctionalInterface
+    public interface Sampler {
+        int next(SplittableRandom random);
+    }
+
+    private static final class ZipfSampler implements Sampler {
+        private final double[] cumulative;
+
+        private ZipfSampler(int size) {
+            cumulative = new double[size];
+            double sum = 0;
+            for (int rank = 0; rank < size; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, ZIPF_EXPONENT);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < size; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        @Override
+        public int next(SplittableRandom random) {
+            double target = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] < target) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ask.basic.infrastructure.dataset;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Ids of the rows written by {@link DatasetGenerator}, indexed the same way as the spec,
+ * so {@code userIds[i]} belongs to {@code spec.email(i)}.
+ */
+@Getter
+@AllArgsConstructor
+public class GeneratedDataset {
+    private final DatasetSpec spec;
+    private final long[] userIds;
+    private final long[] roleIds;
+    private final long[] permissionIds;
+    private final long userRoleLinks;
+    private final long rolePermissionLinks;
+    private final long elapsedMillis;
+
+    public int userCount() {
+        return userIds.length;
+    }
+
+    public int roleCount() {
+        return roleIds.length;
+    }
+
+    public String email(int userIndex) {
+        return spec.email(userIndex);
+    }
+}
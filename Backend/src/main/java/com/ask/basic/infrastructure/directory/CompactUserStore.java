@@ -0,0 +1,393 @@
+package com.ask.basic.infrastructure.directory;
+
+import com.ask.basic.auth.domain.AccountStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Identity data of users (id, tenant, email, username, active flag, account status, role ids) laid out
+ * as parallel primitive arrays indexed by a slot number. Emails and usernames are UTF-8 bytes in one
+ * shared array, a username equal to the email shares its bytes, tenants are stored once and referred
+ * to by code, and role ids are runs in one int array. Lookups by id and by tenant plus email go through
+ * open-addressing tables of slot numbers, so nothing but the arrays themselves is kept per user.
+ * A user with more than {@link #MAX_ROLES} roles is kept without them and marked uncached, so
+ * lookups miss it and callers read the database.
+ * <p>
+ * Not thread-safe: {@link UserDirectory} guards it with a read-write lock.
+ */
+public final class CompactUserStore {
+
+    public static final int MAX_ROLES = Byte.MAX_VALUE;
+
+    private static final int[] NO_ROLES = new int[0];
+    private static final int NO_USERNAME = -1;
+    private static final int TOMBSTONE = -1;
+    private static final int STATUS_MASK = 0x1F;
+    private static final int UNCACHED = 1 << 6;
+    private static final AccountStatus[] STATUSES = AccountStatus.values();
+
+    public record Identity(long id, String tenant, String email, String username, boolean active,
+                           AccountStatus accountStatus, int[] roleIds) {
+    }
+
+    private int size;
+    private long[] ids;
+    private int[] tenants;
+    // bit 0: active; bits 1-5: 0 for no account status, otherwise its ordinal + 1; bit 6: uncached
+    private byte[] flags;
+    private int[] emailStart;
+    private int[] emailLength;
+    private int[] usernameStart;
+    private int[] usernameLength;
+    private int[] roleStart;
+    private byte[] roleCount;
+
+    private byte[] text = new byte[1024];
+    private int textSize;
+    private int textGarbage;
+    private int[] roles = new int[256];
+    private int rolesSize;
+    private int rolesGarbage;
+
+    private final List<String> tenantNames = new ArrayList<>();
+    private final Map<String, Integer> tenantCodes = new HashMap<>();
+
+    // slot + 1 per entry, 0 when empty; idKeys holds the id of each occupied entry
+    private long[] idKeys;
+    private int[] idSlots;
+    // slot + 1 per entry, 0 when empty, TOMBSTONE where an email was removed
+    private int[] emailSlots;
+    private int emailTombstones;
+
+    public CompactUserStore(int expectedUsers) {
+        int capacity = Math.max(16, expectedUsers);
+        ids = new long[capacity];
+        tenants = new int[capacity];
+        flags = new byte[capacity];
+        emailStart = new int[capacity];
+        emailLength = new int[capacity];
+        usernameStart = new int[capacity];
+        usernameLength = new int[capacity];
+        roleStart = new int[capacity];
+        roleCount = new byte[capacity];
+        int tableSize = tableSizeFor(capacity);
+        idKeys = new long[tableSize];
+        idSlots = new int[tableSize];
+        emailSlots = new int[tableSize];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Adds the user, or replaces everything known about it; null role ids keep the current ones
+    public void put(long id, String tenant, String email, String username, boolean active,
+                    AccountStatus accountStatus, int[] roleIds) {
+        // grown while every slot still has its email, so the rehash never sees a half-written one
+        if (size + 1 + emailTombstones > emailSlots.length * 3L / 4) {
+            rehashEmails(size + 1 > emailSlots.length / 2 ? emailSlots.length * 2 : emailSlots.length);
+        }
+        int slot = slotOf(id);
+        if (slot < 0) {
+            slot = addSlot(id);
+        } else {
+            removeEmail(slot);
+            textGarbage += emailLength[slot];
+            if (usernameLength[slot] > 0 && usernameStart[slot] != emailStart[slot]) {
+                textGarbage += usernameLength[slot];
+            }
+        }
+
+        tenants[slot] = tenantCode(tenant);
+        flags[slot] = (byte) ((active ? 1 : 0) | (accountStatus != null ? accountStatus.ordinal() + 1 : 0) << 1
+                | flags[slot] & UNCACHED);
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        emailStart[slot] = appendText(emailBytes);
+        emailLength[slot] = emailBytes.length;
+        if (username == null) {
+            usernameStart[slot] = 0;
+            usernameLength[slot] = NO_USERNAME;
+        } else if (username.equals(email)) {
+            usernameStart[slot] = emailStart[slot];
+            usernameLength[slot] = emailLength[slot];
+        } else {
+            byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+            usernameStart[slot] = appendText(usernameBytes);
+            usernameLength[slot] = usernameBytes.length;
+        }
+        if (roleIds != null) {
+            setRoles(slot, roleIds);
+        }
+        insertEmail(slot);
+        compactIfWasteful();
+    }
+
+    // Replaces the role ids of a known user; unknown users are ignored
+    public void setRoles(long id, int[] roleIds) {
+        int slot = slotOf(id);
+        if (slot >= 0) {
+            setRoles(slot, roleIds);
+            compactIfWasteful();
+        }
+    }
+
+    // Removes a role from every user holding it, or renames it to another role id when given
+    public void replaceRole(int roleId, Integer replacementId) {
+        for (int slot = 0; slot < size; slot++) {
+            int start = roleStart[slot];
+            int count = roleCount[slot];
+            for (int i = start; i < start + count; i++) {
+                if (roles[i] != roleId) {
+                    continue;
+                }
+                if (replacementId != null && !contains(roles, start, count, replacementId)) {
+                    roles[i] = replacementId;
+                } else {
+                    // shift the rest of the run down; the freed entry is garbage
+                    System.arraycopy(roles, i + 1, roles, i, start + count - i - 1);
+                    roleCount[slot]--;
+                    rolesGarbage++;
+                }
+                break;
+            }
+        }
+    }
+
+    public Identity get(long id) {
+        int slot = slotOf(id);
+        return slot < 0 || (flags[slot] & UNCACHED) != 0 ? null : identity(slot);
+    }
+
+    public Identity findByEmail(String tenant, String email) {
+        Integer tenantCode = tenantCodes.get(tenant);
+        if (tenantCode == null) {
+            return null;
+        }
+        byte[] bytes = email.getBytes(StandardCharsets.UTF_8);
+        int mask = emailSlots.length - 1;
+        for (int i = emailHash(tenantCode, bytes, 0, bytes.length) & mask; emailSlots[i] != 0; i = (i + 1) & mask) {
+            int slot = emailSlots[i] - 1;
+            if (slot >= 0 && tenants[slot] == tenantCode
+                    && Arrays.equals(text, emailStart[slot], emailStart[slot] + emailLength[slot], bytes, 0, bytes.length)) {
+                return (flags[slot] & UNCACHED) != 0 ? null : identity(slot);
+            }
+        }
+        return null;
+    }
+
+    // Bytes held by the arrays, headers excluded
+    public long footprintBytes() {
+        long perSlot = (long) ids.length * (Long.BYTES + 6 * Integer.BYTES + 2);
+        long tables = (long) idKeys.length * (Long.BYTES + Integer.BYTES) + (long) emailSlots.length * Integer.BYTES;
+        return perSlot + tables + text.length + (long) roles.length * Integer.BYTES;
+    }
+
+    private Identity identity(int slot) {
+        String email = new String(text, emailStart[slot], emailLength[slot], StandardCharsets.UTF_8);
+        String username;
+        if (usernameLength[slot] == NO_USERNAME) {
+            username = null;
+        } else if (usernameStart[slot] == emailStart[slot]) {
+            username = email;
+        } else {
+            username = new String(text, usernameStart[slot], usernameLength[slot], StandardCharsets.UTF_8);
+        }
+        int status = flags[slot] >> 1 & STATUS_MASK;
+        int[] roleIds = roleCount[slot] == 0
+                ? NO_ROLES
+                : Arrays.copyOfRange(roles, roleStart[slot], roleStart[slot] + roleCount[slot]);
+        return new Identity(ids[slot], tenantNames.get(tenants[slot]), email, username, (flags[slot] & 1) != 0,
+                status == 0 ? null : STATUSES[status - 1], roleIds);
+    }
+
+    private int addSlot(long id) {
+        if (size == ids.length) {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            tenants = Arrays.copyOf(tenants, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            emailStart = Arrays.copyOf(emailStart, capacity);
+            emailLength = Arrays.copyOf(emailLength, capacity);
+            usernameStart = Arrays.copyOf(usernameStart, capacity);
+            usernameLength = Arrays.copyOf(usernameLength, capacity);
+            roleStart = Arrays.copyOf(roleStart, capacity);
+            roleCount = Arrays.copyOf(roleCount, capacity);
+        }
+        int slot = size++;
+        ids[slot] = id;
+        if (size > idSlots.length * 3L / 4) {
+            rehashIds(idSlots.length * 2);
+        }
+        insertId(id, slot);
+        return slot;
+    }
+
+    private int slotOf(long id) {
+        int mask = idSlots.length - 1;
+        for (int i = idHash(id) & mask; idSlots[i] != 0; i = (i + 1) & mask) {
+            if (idKeys[i] == id) {
+                return idSlots[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void insertId(long id, int slot) {
+        int mask = idSlots.length - 1;
+        int i = idHash(id) & mask;
+        while (idSlots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        idKeys[i] = id;
+        idSlots[i] = slot + 1;
+    }
+
+    private void rehashIds(int tableSize) {
+        idKeys = new long[tableSize];
+        idSlots = new int[tableSize];
+        for (int slot = 0; slot < size; slot++) {
+            insertId(ids[slot], slot);
+        }
+    }
+
+    private void insertEmail(int slot) {
+        int mask = emailSlots.length - 1;
+        int i = emailHash(tenants[slot], text, emailStart[slot], emailLength[slot]) & mask;
+        while (emailSlots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        emailSlots[i] = slot + 1;
+    }
+
+    private void removeEmail(int slot) {
+        int mask = emailSlots.length - 1;
+        for (int i = emailHash(tenants[slot], text, emailStart[slot], emailLength[slot]) & mask; emailSlots[i] != 0; i = (i + 1) & mask) {
+            if (emailSlots[i] == slot + 1) {
+                emailSlots[i] = TOMBSTONE;
+                emailTombstones++;
+                return;
+            }
+        }
+    }
+
+    private void rehashEmails(int tableSize) {
+        emailSlots = new int[tableSize];
+        emailTombstones = 0;
+        int mask = tableSize - 1;
+        for (int slot = 0; slot < size; slot++) {
+            int i = emailHash(tenants[slot], text, emailStart[slot], emailLength[slot]) & mask;
+            while (emailSlots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            emailSlots[i] = slot + 1;
+        }
+    }
+
+    private void setRoles(int slot, int[] roleIds) {
+        if (roleIds.length > MAX_ROLES) {
+            flags[slot] |= UNCACHED;
+            roleIds = NO_ROLES;
+        } else {
+            flags[slot] &= ~UNCACHED;
+        }
+        int count = roleCount[slot];
+        if (roleIds.length > count) {
+            // the old run cannot hold the new one: append, and count the old run as garbage
+            rolesGarbage += count;
+            if (rolesSize + roleIds.length > roles.length) {
+                roles = Arrays.copyOf(roles, Math.max(rolesSize + roleIds.length, roles.length + (roles.length >> 1)));
+            }
+            roleStart[slot] = rolesSize;
+            rolesSize += roleIds.length;
+        } else {
+            rolesGarbage += count - roleIds.length;
+        }
+        System.arraycopy(roleIds, 0, roles, roleStart[slot], roleIds.length);
+        roleCount[slot] = (byte) roleIds.length;
+    }
+
+    private int appendText(byte[] bytes) {
+        if (textSize + bytes.length > text.length) {
+            text = Arrays.copyOf(text, Math.max(textSize + bytes.length, text.length + (text.length >> 1)));
+        }
+        int start = textSize;
+        System.arraycopy(bytes, 0, text, start, bytes.length);
+        textSize += bytes.length;
+        return start;
+    }
+
+    private int tenantCode(String tenant) {
+        return tenantCodes.computeIfAbsent(tenant, name -> {
+            tenantNames.add(name);
+            return tenantNames.size() - 1;
+        });
+    }
+
+    // Updates leave their old bytes and role runs behind; copy the live ones once they are the minority
+    private void compactIfWasteful() {
+        if (textGarbage > 4096 && textGarbage > textSize / 2) {
+            byte[] compacted = new byte[Math.max(1024, textSize - textGarbage + 1024)];
+            int position = 0;
+            for (int slot = 0; slot < size; slot++) {
+                boolean shared = usernameStart[slot] == emailStart[slot] && usernameLength[slot] == emailLength[slot];
+                System.arraycopy(text, emailStart[slot], compacted, position, emailLength[slot]);
+                emailStart[slot] = position;
+                position += emailLength[slot];
+                if (shared) {
+                    usernameStart[slot] = emailStart[slot];
+                } else if (usernameLength[slot] > 0) {
+                    System.arraycopy(text, usernameStart[slot], compacted, position, usernameLength[slot]);
+                    usernameStart[slot] = position;
+                    position += usernameLength[slot];
+                }
+            }
+            text = compacted;
+            textSize = position;
+            textGarbage = 0;
+        }
+        if (rolesGarbage > 1024 && rolesGarbage > rolesSize / 2) {
+            int[] compacted = new int[Math.max(256, rolesSize - rolesGarbage + 256)];
+            int position = 0;
+            for (int slot = 0; slot < size; slot++) {
+                System.arraycopy(roles, roleStart[slot], compacted, position, roleCount[slot]);
+                roleStart[slot] = position;
+                position += roleCount[slot];
+            }
+            roles = compacted;
+            rolesSize = position;
+            rolesGarbage = 0;
+        }
+    }
+
+    private static boolean contains(int[] values, int start, int count, int value) {
+        for (int i = start; i < start + count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int tableSizeFor(int entries) {
+        // at most half full after sizing, so probes stay short until the next doubling at three quarters
+        return Integer.highestOneBit(Math.max(8, entries) * 2 - 1) << 1;
+    }
+
+    private static int idHash(long id) {
+        long mixed = id * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    private static int emailHash(int tenantCode, byte[] bytes, int start, int length) {
+        int hash = tenantCode;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
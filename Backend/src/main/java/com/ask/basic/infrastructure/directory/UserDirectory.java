@@ -0,0 +1,272 @@
+package com.ask.basic.infrastructure.directory;
+
+import com.ask.basic.auth.domain.AccountStatus;
+import com.ask.basic.infrastructure.tenancy.TenantIdentifierResolver;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Optional in-memory copy of the identity data of every user, held in a {@link CompactUserStore}.
+ * It is filled by a streaming scan once the application is ready and kept current by the user and
+ * role write paths after their transaction commits. Until the scan is done {@link #isReady()} is
+ * false and callers read the database as before; they do too when a lookup misses.
+ */
+@Log4j2
+@Component
+@EnableConfigurationProperties(UserDirectoryProperties.class)
+public class UserDirectory {
+
+    private static final int USERS_PER_STATEMENT = 500;
+    private static final int[] NO_ROLES = new int[0];
+    private static final String USERS = "select id, tenant_id, email, username, is_active, account_status from p_app_user";
+    private static final String USER_ROLES = "select user_id, role_id from p_user_role";
+
+    private final UserDirectoryProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantIdentifierResolver tenantIdentifierResolver;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // held from reading a change to applying it, so a change never lands over a later one
+    private final Object changes = new Object();
+
+    private CompactUserStore store;
+    // while a scan runs, the changes committed meanwhile, read again for the new store; null otherwise
+    private List<Supplier<Consumer<CompactUserStore>>> pending = new ArrayList<>();
+
+    public UserDirectory(UserDirectoryProperties properties, JdbcTemplate jdbcTemplate,
+                         TenantIdentifierResolver tenantIdentifierResolver) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tenantIdentifierResolver = tenantIdentifierResolver;
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return store != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // In the current tenant
+    public Optional<CompactUserStore.Identity> findByEmail(String email) {
+        String tenant = tenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        return read(store -> store.findByEmail(tenant, email));
+    }
+
+    // The rows of these users changed: re-read them once the transaction commits
+    public void usersChanged(Collection<Long> userIds) {
+        if (properties.isEnabled() && !userIds.isEmpty()) {
+            List<Long> ids = List.copyOf(userIds);
+            // read outside the read-write lock, so lookups only wait for the copy into the store
+            afterCommit(() -> {
+                Map<Long, Row> rows = fetch(ids);
+                return store -> rows.values().forEach(row -> row.putInto(store));
+            });
+        }
+    }
+
+    // The role was deleted, or merged into the replacement
+    public void roleRemoved(Long roleId, Long replacementId) {
+        if (properties.isEnabled()) {
+            Integer replacement = replacementId != null ? Math.toIntExact(replacementId) : null;
+            afterCommit(() -> store -> store.replaceRole(Math.toIntExact(roleId), replacement));
+        }
+    }
+
+    // A streaming scan into a new store, swapped in whole; also called after rows were written behind the services' back
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            if (pending == null) {
+                pending = new ArrayList<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        CompactUserStore loaded = new CompactUserStore(properties.getExpectedUsers());
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(USERS);
+            statement.setFetchSize(properties.getFetchSize());
+            return statement;
+        }, (RowCallbackHandler) rs -> Row.of(rs).putInto(loaded));
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(USER_ROLES + " order by user_id");
+            statement.setFetchSize(properties.getFetchSize());
+            return statement;
+        }, new RoleRuns(loaded::setRoles));
+
+        int replayed;
+        synchronized (changes) {
+            List<Supplier<Consumer<CompactUserStore>>> replay;
+            lock.readLock().lock();
+            try {
+                replay = pending != null ? List.copyOf(pending) : List.of();
+            } finally {
+                lock.readLock().unlock();
+            }
+            // what changed during the scan is read again, as the scan may have seen it or an older row
+            List<Consumer<CompactUserStore>> updates = replay.stream().map(Supplier::get).toList();
+            lock.writeLock().lock();
+            try {
+                pending = null;
+                store = loaded;
+                updates.forEach(update -> update.accept(loaded));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            replayed = updates.size();
+        }
+        log.info("User directory loaded in {} ms: {} users in {} KB, {} changes replayed",
+                System.currentTimeMillis() - started, loaded.size(), loaded.footprintBytes() / 1024, replayed);
+    }
+
+    private <T> Optional<T> read(Function<CompactUserStore, T> lookup) {
+        lock.readLock().lock();
+        try {
+            return store != null ? Optional.ofNullable(lookup.apply(store)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void afterCommit(Supplier<Consumer<CompactUserStore>> prepare) {
+        Runnable apply = () -> {
+            synchronized (changes) {
+                Consumer<CompactUserStore> update = prepare.get();
+                lock.writeLock().lock();
+                try {
+                    if (pending != null) {
+                        pending.add(prepare);
+                    }
+                    if (store != null) {
+                        update.accept(store);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private Map<Long, Row> fetch(List<Long> userIds) {
+        Map<Long, Row> rows = new HashMap<>();
+        for (int from = 0; from < userIds.size(); from += USERS_PER_STATEMENT) {
+            List<Long> chunk = userIds.subList(from, Math.min(userIds.size(), from + USERS_PER_STATEMENT));
+            String in = " where %s in (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(USERS + in.formatted("id"), (RowCallbackHandler) rs -> {
+                // a user without role rows has lost them all
+                Row row = Row.of(rs).withRoles(NO_ROLES);
+                rows.put(row.id(), row);
+            }, chunk.toArray());
+            jdbcTemplate.query(USER_ROLES + in.formatted("user_id") + " order by user_id",
+                    new RoleRuns((userId, roleIds) -> rows.computeIfPresent(userId, (id, row) -> row.withRoles(roleIds))),
+                    chunk.toArray());
+        }
+        return rows;
+    }
+
+    private record Row(long id, String tenant, String email, String username, boolean active,
+                       AccountStatus accountStatus, int[] roleIds) {
+
+        // role ids are null until read, which keeps the ones already stored
+        static Row of(ResultSet rs) throws SQLException {
+            String status = rs.getString(6);
+            return new Row(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getBoolean(5),
+                    status != null ? AccountStatus.valueOf(status) : null, null);
+        }
+
+        Row withRoles(int[] roleIds) {
+            return new Row(id, tenant, email, username, active, accountStatus, roleIds);
+        }
+
+        void putInto(CompactUserStore store) {
+            store.put(id, tenant, email, username, active, accountStatus, roleIds);
+        }
+    }
+
+    // Collects the consecutive rows of each user, ordered by user id, into one run of role ids; a run
+    // longer than the store holds is passed whole, so the store marks the user uncached
+    private static final class RoleRuns implements ResultSetExtractor<Void> {
+        private final BiConsumer<Long, int[]> consumer;
+
+        RoleRuns(BiConsumer<Long, int[]> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public Void extractData(ResultSet rs) throws SQLException {
+            int[] buffer = new int[16];
+            long userId = -1;
+            int count = 0;
+            while (rs.next()) {
+                long rowUserId = rs.getLong(1);
+                if (rowUserId != userId && count > 0) {
+                    accept(userId, Arrays.copyOf(buffer, count));
+                    count = 0;
+                }
+                userId = rowUserId;
+                if (count == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, count * 2);
+                }
+                buffer[count++] = Math.toIntExact(rs.getLong(2));
+            }
+            if (count > 0) {
+                accept(userId, Arrays.copyOf(buffer, count));
+            }
+            return null;
+        }
+
+        private void accept(long userId, int[] roleIds) {
+            if (roleIds.length > CompactUserStore.MAX_ROLES) {
+                log.warn("User {} has {} roles, more than the directory holds ({}); it is read from the database",
+                        userId, roleIds.length, CompactUserStore.MAX_ROLES);
+            }
+            consumer.accept(userId, roleIds);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.ask.basic.infrastructure.directory;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The in-memory identity directory, e.g.
+ * <pre>
+ * user-directory.enabled=true
+ * user-directory.expected-users=1000000
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "user-directory")
+public class UserDirectoryProperties {
+    private boolean enabled = false;
+    // Initial capacity of the arrays; they grow past it, at the cost of a copy each time
+    private int expectedUsers = 10_000;
+    // Rows per round-trip of the startup scan
+    private int fetchSize = 5_000;
+}
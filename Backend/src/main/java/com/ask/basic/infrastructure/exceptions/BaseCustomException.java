@@ -12,5 +12,10 @@ public abstract class BaseCustomException extends RuntimeException {
         super(message, cause);
     }
 
+    // For expected client errors: no stack trace is captured unless ErrorStackTraces is enabled
+    protected BaseCustomException(String message, boolean stackless) {
+        super(message, null, false, !stackless || ErrorStackTraces.isEnabled());
+    }
+
     public abstract HttpStatus getStatusCode();
 }
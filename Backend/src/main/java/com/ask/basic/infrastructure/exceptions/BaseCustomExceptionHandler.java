@@ -1,7 +1,7 @@
 package com.ask.basic.infrastructure.exceptions;
 
 import com.ask.basic.infrastructure.response.ApiResponse;
-import lombok.extern.log4j.Log4j2;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -20,123 +20,124 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @ControllerAdvice
-@Log4j2
+@RequiredArgsConstructor
 public class BaseCustomExceptionHandler extends ResponseEntityExceptionHandler {
 
+    private final ErrorLogSampler errorLogSampler;
+
     // Handle custom business exceptions
     @ExceptionHandler(BaseCustomException.class)
     public ResponseEntity<ApiResponse<Object>> handleBaseCustomException(BaseCustomException ex, WebRequest request) {
-        log.error("BaseCustomException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), "BUSINESS_ERROR", path);
+        errorLogSampler.record("BUSINESS_ERROR", ex.getStatusCode(), ex, path);
         return new ResponseEntity<>(response, ex.getStatusCode());
     }
 
     // Handle not found exceptions
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ApiResponse<Object>> handleNotFoundException(NotFoundException ex, WebRequest request) {
-        log.error("NotFoundException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), "NOT_FOUND", path);
+        errorLogSampler.record("NOT_FOUND", HttpStatus.NOT_FOUND, ex, path);
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
     // Handle duplicate resource exceptions
     @ExceptionHandler(DuplicateResourceException.class)
     public ResponseEntity<ApiResponse<Object>> handleDuplicateResourceException(DuplicateResourceException ex, WebRequest request) {
-        log.error("DuplicateResourceException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), "DUPLICATE_RESOURCE", path);
+        errorLogSampler.record("DUPLICATE_RESOURCE", HttpStatus.CONFLICT, ex, path);
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
 
     // Handle validation exceptions
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<ApiResponse<Object>> handleValidationException(ValidationException ex, WebRequest request) {
-        log.error("ValidationException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), ex.getErrorCode(), path);
+        errorLogSampler.record(ex.getErrorCode(), HttpStatus.BAD_REQUEST, ex, path);
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
     // Handle unauthorized exceptions
     @ExceptionHandler(UnauthorizedException.class)
     public ResponseEntity<ApiResponse<Object>> handleUnauthorizedException(UnauthorizedException ex, WebRequest request) {
-        log.error("UnauthorizedException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), ex.getErrorCode(), path);
+        errorLogSampler.record(ex.getErrorCode(), HttpStatus.UNAUTHORIZED, ex, path);
         return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
     }
 
     // Handle authentication exceptions
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ApiResponse<Object>> handleAuthenticationException(AuthenticationException ex, WebRequest request) {
-        log.error("AuthenticationException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error("Authentication failed", "AUTHENTICATION_ERROR", path);
+        errorLogSampler.record("AUTHENTICATION_ERROR", HttpStatus.UNAUTHORIZED, ex, path);
         return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
     }
 
     // Handle access denied exceptions
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ApiResponse<Object>> handleAccessDeniedException(AccessDeniedException ex, WebRequest request) {
-        log.error("AccessDeniedException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error("Access denied", "ACCESS_DENIED", path);
+        errorLogSampler.record("ACCESS_DENIED", HttpStatus.FORBIDDEN, ex, path);
         return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
     }
 
     // Handle illegal argument exceptions
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiResponse<Object>> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
-        log.error("IllegalArgumentException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), "INVALID_ARGUMENT", path);
+        errorLogSampler.record("INVALID_ARGUMENT", HttpStatus.BAD_REQUEST, ex, path);
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
     // Handle request validation exceptions
     @ExceptionHandler(RequestValidationException.class)
     public ResponseEntity<ApiResponse<Object>> handleRequestValidationException(RequestValidationException ex, WebRequest request) {
-        log.error("RequestValidationException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), "REQUEST_VALIDATION_ERROR", path);
+        errorLogSampler.record("REQUEST_VALIDATION_ERROR", HttpStatus.BAD_REQUEST, ex, path);
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
     // Handle general rule platform exceptions
     @ExceptionHandler(GeneralRulePlatformException.class)
     public ResponseEntity<ApiResponse<Object>> handleGeneralRulePlatformException(GeneralRulePlatformException ex, WebRequest request) {
-        log.error("GeneralRulePlatformException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), "GENERAL_RULE_ERROR", path);
+        errorLogSampler.record("GENERAL_RULE_ERROR", HttpStatus.BAD_REQUEST, ex, path);
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
     // Handle internal server error exceptions
     @ExceptionHandler(InternalServerErrorException.class)
     public ResponseEntity<ApiResponse<Object>> handleInternalServerErrorException(InternalServerErrorException ex, WebRequest request) {
-        log.error("InternalServerErrorException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), "INTERNAL_SERVER_ERROR", path);
+        errorLogSampler.record("INTERNAL_SERVER_ERROR", HttpStatus.INTERNAL_SERVER_ERROR, ex, path);
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
     // Handle method argument validation errors
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
-        log.error("MethodArgumentNotValidException: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         List<String> errorMessages = ex.getBindingResult()
@@ -147,6 +148,7 @@ public class BaseCustomExceptionHandler extends ResponseEntityExceptionHandler {
 
         String message = String.join(", ", errorMessages);
         ApiResponse<Object> response = ApiResponse.error(message, "VALIDATION_ERROR", path);
+        errorLogSampler.record("VALIDATION_ERROR", HttpStatus.BAD_REQUEST, ex, path);
 
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
@@ -154,10 +156,10 @@ public class BaseCustomExceptionHandler extends ResponseEntityExceptionHandler {
     // Handle all other unexpected exceptions
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Object>> handleGenericException(Exception ex, WebRequest request) {
-        log.error("Unexpected exception: {}", ex.getMessage(), ex);
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
 
         ApiResponse<Object> response = ApiResponse.error("An unexpected error occurred", "INTERNAL_ERROR", path);
+        errorLogSampler.record("INTERNAL_ERROR", HttpStatus.INTERNAL_SERVER_ERROR, ex, path);
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 }
\ No newline at end of file
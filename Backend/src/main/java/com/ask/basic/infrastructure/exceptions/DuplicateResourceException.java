@@ -6,6 +6,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(code = HttpStatus.CONFLICT)
 public class DuplicateResourceException extends RuntimeException {
     public DuplicateResourceException(String message) {
-        super(message);
+        super(message, null, false, ErrorStackTraces.isEnabled());
     }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.ask.basic.infrastructure.exceptions;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts every handled error in {@code api.errors} and decides which ones reach the log. Client
+ * errors are logged at WARN without a stack trace within a per-code budget, with the number of
+ * errors skipped since the last logged one; server errors are always logged at ERROR.
+ */
+@Log4j2
+@Component
+@EnableConfigurationProperties(ErrorLoggingProperties.class)
+public class ErrorLogSampler {
+
+    private final ErrorLoggingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final long windowNanos;
+    private final Map<String, CodeState> states = new ConcurrentHashMap<>();
+
+    public ErrorLogSampler(ErrorLoggingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.windowNanos = properties.getWindow().toNanos();
+        ErrorStackTraces.setEnabled(properties.isCaptureStackTraces());
+    }
+
+    public void record(String errorCode, HttpStatusCode status, Exception ex, String path) {
+        CodeState state = states.get(errorCode);
+        if (state == null) {
+            state = states.computeIfAbsent(errorCode, code -> new CodeState());
+        }
+        state.counter(errorCode, status).increment();
+
+        if (status.is5xxServerError()) {
+            log.error("{} {} on {}: {}", status.value(), errorCode, path, ex.getMessage(), ex);
+            return;
+        }
+
+        long skipped = state.tryLog(System.nanoTime());
+        if (skipped < 0) {
+            return;
+        }
+        if (skipped > 0) {
+            log.warn("{} {} on {}: {} ({} similar errors not logged)", status.value(), errorCode, path, ex.getMessage(), skipped);
+        } else {
+            log.warn("{} {} on {}: {}", status.value(), errorCode, path, ex.getMessage());
+        }
+    }
+
+    private final class CodeState {
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+        private final AtomicLong inWindow = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final Map<Integer, Counter> counters = new ConcurrentHashMap<>();
+
+        Counter counter(String errorCode, HttpStatusCode status) {
+            Counter counter = counters.get(status.value());
+            if (counter == null) {
+                counter = counters.computeIfAbsent(status.value(), value -> Counter.builder("api.errors")
+                        .description("Errors answered by the exception handler")
+                        .tag("code", errorCode)
+                        .tag("status", String.valueOf(value))
+                        .register(meterRegistry));
+            }
+            return counter;
+        }
+
+        // Skipped count since the last logged error when this one should be logged, -1 otherwise
+        long tryLog(long now) {
+            long start = windowStart.get();
+            if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+                inWindow.set(0);
+            }
+            long seen = inWindow.incrementAndGet();
+            boolean logged = seen <= properties.getMaxPerWindow()
+                    || (properties.getSampleEvery() > 0 && (seen - properties.getMaxPerWindow()) % properties.getSampleEvery() == 0);
+            if (!logged) {
+                skipped.incrementAndGet();
+                return -1;
+            }
+            return skipped.getAndSet(0);
+        }
+    }
+}
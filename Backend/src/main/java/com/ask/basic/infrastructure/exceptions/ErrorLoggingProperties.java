@@ -0,0 +1,25 @@
+package com.ask.basic.infrastructure.exceptions;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Log budget for client errors (4xx), per error code, e.g.
+ * <pre>
+ * error-logging.max-per-window=10
+ * error-logging.window=10s
+ * error-logging.sample-every=1000
+ * </pre>
+ * The first {@code max-per-window} errors of a code in each window are logged, after that one in
+ * {@code sample-every} (0 logs none). Server errors (5xx) are always logged with their stack trace.
+ */
+@Data
+@ConfigurationProperties(prefix = "error-logging")
+public class ErrorLoggingProperties {
+    private boolean captureStackTraces = false;
+    private int maxPerWindow = 10;
+    private Duration window = Duration.ofSeconds(10);
+    private long sampleEvery = 1000;
+}
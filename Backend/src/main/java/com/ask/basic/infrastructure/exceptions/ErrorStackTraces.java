@@ -0,0 +1,21 @@
+package com.ask.basic.infrastructure.exceptions;
+
+/**
+ * Whether client-error exceptions capture a stack trace. Off by default since they are answered and
+ * counted but never need one; set {@code error-logging.capture-stack-traces=true} to debug where they come from.
+ */
+public final class ErrorStackTraces {
+
+    private static volatile boolean enabled;
+
+    private ErrorStackTraces() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    static void setEnabled(boolean enabled) {
+        ErrorStackTraces.enabled = enabled;
+    }
+}
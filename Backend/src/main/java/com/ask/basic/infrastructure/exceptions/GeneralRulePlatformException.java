@@ -5,7 +5,7 @@ import org.springframework.http.HttpStatus;
 public class GeneralRulePlatformException extends BaseCustomException {
 
     public GeneralRulePlatformException(String message) {
-        super(message);
+        super(message, true);
     }
 
     @Override
@@ -5,11 +5,11 @@ import org.springframework.http.HttpStatus;
 public class NotFoundException extends BaseCustomException {
 
     public NotFoundException(String entity, Long id) {
-        super(entity + " with id : " + id + " not found");
+        super(entity + " with id : " + id + " not found", true);
     }
 
     public NotFoundException(String entity, String name) {
-        super(entity + " with name : " + name + " not found");
+        super(entity + " with name : " + name + " not found", true);
     }
 
     @Override
@@ -6,6 +6,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(code = HttpStatus.BAD_REQUEST)
 public class RequestValidationException extends RuntimeException {
     public RequestValidationException(String message) {
-        super(message);
+        super(message, null, false, ErrorStackTraces.isEnabled());
     }
 }
\ No newline at end of file
@@ -4,12 +4,12 @@ public class UnauthorizedException extends RuntimeException {
     private final String errorCode;
 
     public UnauthorizedException(String message) {
-        super(message);
+        super(message, null, false, ErrorStackTraces.isEnabled());
         this.errorCode = "UNAUTHORIZED";
     }
 
     public UnauthorizedException(String message, String errorCode) {
-        super(message);
+        super(message, null, false, ErrorStackTraces.isEnabled());
         this.errorCode = errorCode;
     }
 
@@ -4,12 +4,12 @@ public class ValidationException extends RuntimeException {
     private final String errorCode;
 
     public ValidationException(String message) {
-        super(message);
+        super(message, null, false, ErrorStackTraces.isEnabled());
         this.errorCode = "VALIDATION_ERROR";
     }
 
     public ValidationException(String message, String errorCode) {
-        super(message);
+        super(message, null, false, ErrorStackTraces.isEnabled());
         this.errorCode = errorCode;
     }
 
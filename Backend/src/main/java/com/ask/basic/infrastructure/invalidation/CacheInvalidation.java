@@ -0,0 +1,44 @@
+package com.ask.basic.infrastructure.invalidation;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One published {@link InvalidationEvent}, numbered by {@code version}. Mapped for the schema only:
+ * rows are written and read with SQL by {@link InvalidationBus}, and let a node that lost its
+ * connection catch up on what it missed.
+ */
+@Getter
+@NoArgsConstructor
+@Entity(name = "cache_invalidation")
+@Table(name = "cache_invalidation", indexes = @Index(name = "cache_invalidation_created_idx", columnList = "created_at"))
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long version;
+
+    @Column(name = "kind", nullable = false, length = 16)
+    private String kind;
+
+    @Column(name = "tenant_id", length = 64)
+    private String tenantId;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "origin", nullable = false, length = 36)
+    private String origin;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,267 @@
+package com.ask.basic.infrastructure.invalidation;
+
+import com.ask.basic.infrastructure.tenancy.TenantIdentifierResolver;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Tells the other nodes what the user and role write paths changed, so they can drop what they hold
+ * in memory, without a message broker. Once the change commits, the event is stored in
+ * {@code cache_invalidation} and, on PostgreSQL, sent with {@code pg_notify} in the same short
+ * transaction. Each node keeps one connection listening on the channel and hands the events of other
+ * nodes to {@link InvalidationHandler}. After a reconnect, and on databases without LISTEN on every
+ * poll, it catches up from the table by version.
+ */
+@Log4j2
+@Component
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class InvalidationBus {
+
+    // Versions are taken before the short publishing transactions commit, so a few may commit out of
+    // order; the catch-up re-reads this many below the highest seen and skips those already applied
+    private static final int CATCH_UP_OVERLAP = 256;
+
+    private static final String INSERT = "insert into cache_invalidation (kind, tenant_id, entity_id, origin, created_at) " +
+            "values (?, ?, ?, ?, ?)";
+    private static final String SELECT = "select version, kind, tenant_id, entity_id, origin from cache_invalidation";
+
+    private final InvalidationProperties properties;
+    private final InvalidationHandler handler;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate publishTransaction;
+    private final TenantIdentifierResolver tenantIdentifierResolver;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final String origin = UUID.randomUUID().toString();
+
+    private volatile Boolean postgres;
+    private volatile Thread listener;
+    // only touched by the listener thread once started
+    private long highestVersion;
+    private final Set<Long> applied = new HashSet<>();
+
+    public InvalidationBus(InvalidationProperties properties, InvalidationHandler handler, JdbcTemplate jdbcTemplate,
+                           DataSource dataSource, PlatformTransactionManager transactionManager,
+                           TenantIdentifierResolver tenantIdentifierResolver, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.handler = handler;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.publishTransaction = new TransactionTemplate(transactionManager);
+        // statements run from afterCommit would otherwise join the finished transaction and never commit
+        this.publishTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tenantIdentifierResolver = tenantIdentifierResolver;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void userChanged(Long userId) {
+        publish(InvalidationEvent.Kind.USER, userId);
+    }
+
+    public void roleChanged(Long roleId) {
+        publish(InvalidationEvent.Kind.ROLE, roleId);
+    }
+
+    public void catalogChanged() {
+        publish(InvalidationEvent.Kind.CATALOG, null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        // what was published before this node started concerns nothing it holds
+        Long highest = jdbcTemplate.queryForObject("select max(version) from cache_invalidation", Long.class);
+        highestVersion = highest != null ? highest : 0;
+        applied.addAll(jdbcTemplate.queryForList("select version from cache_invalidation where version > ?",
+                Long.class, highestVersion - CATCH_UP_OVERLAP));
+        Thread thread = new Thread(this::listen, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        listener = thread;
+        thread.start();
+        log.info("Cache invalidation started as node {} from version {}, {}", origin, highestVersion,
+                postgres() ? "listening on channel " + properties.getChannel() : "polling every " + properties.getPollIntervalMs() + " ms");
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = listener;
+        listener = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.prune-interval-ms:3600000}")
+    public void prune() {
+        if (properties.isEnabled()) {
+            jdbcTemplate.update("delete from cache_invalidation where created_at < ?",
+                    Timestamp.valueOf(LocalDateTime.now().minus(properties.getRetention())));
+        }
+    }
+
+    private void publish(InvalidationEvent.Kind kind, Long id) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String tenant = kind == InvalidationEvent.Kind.CATALOG ? null : tenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        Runnable send = () -> {
+            try {
+                publishTransaction.executeWithoutResult(status -> send(kind, tenant, id));
+            } catch (RuntimeException e) {
+                log.error("Could not publish the {} {} invalidation of tenant '{}'; other nodes may serve it stale",
+                        kind, id, tenant, e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send.run();
+                }
+            });
+        } else {
+            send.run();
+        }
+    }
+
+    private void send(InvalidationEvent.Kind kind, String tenant, Long id) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT, new String[]{"version"});
+            statement.setString(1, kind.name());
+            statement.setString(2, tenant);
+            statement.setObject(3, id);
+            statement.setString(4, origin);
+            statement.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            return statement;
+        }, keyHolder);
+        if (postgres()) {
+            // delivered when this transaction commits, so never before the row can be read
+            InvalidationEvent event = new InvalidationEvent(keyHolder.getKey().longValue(), kind, tenant, id, origin);
+            jdbcTemplate.query("select pg_notify(?, ?)", rs -> {
+            }, properties.getChannel(), toJson(event));
+        }
+    }
+
+    private void listen() {
+        while (listener != null) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection notifications = postgres() ? connection.unwrap(PGConnection.class) : null;
+                if (notifications != null) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("listen " + properties.getChannel());
+                    }
+                }
+                // after LISTEN, so whatever commits in between arrives one way or the other
+                catchUp();
+                while (listener != null) {
+                    if (notifications != null) {
+                        PGNotification[] received = notifications.getNotifications(properties.getPollIntervalMs());
+                        if (received != null) {
+                            for (PGNotification notification : received) {
+                                receive(objectMapper.readValue(notification.getParameter(), InvalidationEvent.class));
+                            }
+                        }
+                    } else {
+                        Thread.sleep(properties.getPollIntervalMs());
+                        catchUp();
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                if (listener == null) {
+                    return;
+                }
+                log.warn("Cache invalidation listener failed, catching up after reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(properties.getReconnectDelayMs());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void catchUp() {
+        Long oldest = jdbcTemplate.queryForObject("select min(version) from cache_invalidation", Long.class);
+        if (oldest != null && oldest > highestVersion + 1 && highestVersion > 0) {
+            // pruned past what this node has seen: whatever it missed is unknown
+            log.warn("Cache invalidation events {} to {} were pruned before this node read them; flushing all caches",
+                    highestVersion + 1, oldest - 1);
+            handler.flushAll();
+        }
+        jdbcTemplate.query(SELECT + " where version > ? order by version", (RowCallbackHandler) rs -> receive(new InvalidationEvent(
+                rs.getLong(1), InvalidationEvent.Kind.valueOf(rs.getString(2)), rs.getString(3),
+                rs.getObject(4) != null ? rs.getLong(4) : null, rs.getString(5))), highestVersion - CATCH_UP_OVERLAP);
+    }
+
+    private void receive(InvalidationEvent event) {
+        if (!applied.add(event.version())) {
+            return;
+        }
+        if (event.version() > highestVersion) {
+            highestVersion = event.version();
+            applied.removeIf(version -> version <= highestVersion - CATCH_UP_OVERLAP);
+        }
+        // this node applied its own changes when they committed
+        if (!origin.equals(event.origin())) {
+            handler.apply(event);
+            meterRegistry.counter("cache.invalidation.received", "kind", event.kind().name()).increment();
+        }
+    }
+
+    // Without LISTEN/NOTIFY the events only go through the table
+    private boolean postgres() {
+        Boolean known = postgres;
+        if (known == null) {
+            known = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql")));
+            postgres = known;
+        }
+        return known;
+    }
+
+    private String toJson(InvalidationEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.ask.basic.infrastructure.invalidation;
+
+/**
+ * What changed, in which tenant, and on which node. {@code id} is the user or role id, and is
+ * null for a catalog change, whose {@code version} serves as the catalog version.
+ */
+public record InvalidationEvent(long version, Kind kind, String tenant, Long id, String origin) {
+
+    public enum Kind {
+        USER,
+        ROLE,
+        CATALOG
+    }
+}
@@ -0,0 +1,87 @@
+package com.ask.basic.infrastructure.invalidation;
+
+import com.ask.basic.infrastructure.authorization.PermissionHolderIndex;
+import com.ask.basic.infrastructure.directory.UserDirectory;
+import com.ask.basic.infrastructure.statistics.DirectoryStatistics;
+import com.ask.basic.infrastructure.tenancy.TenancyConfig;
+import com.ask.basic.infrastructure.tenancy.TenantCacheManager;
+import com.ask.basic.infrastructure.tenancy.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Applies an event from another node to what this node holds in memory: the tenant caches, the
+ * permission holder index, the directory statistics and the user directory. Everything it touches
+ * is re-read from the database on the next use or right away, so applying an event twice is harmless.
+ */
+@Component
+@RequiredArgsConstructor
+public class InvalidationHandler {
+
+    private final CacheManager cacheManager;
+    private final PermissionHolderIndex permissionHolderIndex;
+    private final DirectoryStatistics directoryStatistics;
+    private final UserDirectory userDirectory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public void apply(InvalidationEvent event) {
+        if (event.kind() == InvalidationEvent.Kind.CATALOG) {
+            // permissions may have been renamed, regrouped or deactivated, for every tenant
+            flushAll();
+            return;
+        }
+        String previous = TenantContext.get();
+        TenantContext.set(event.tenant());
+        try {
+            if (event.kind() == InvalidationEvent.Kind.USER) {
+                userChanged(event.id());
+            } else {
+                roleChanged(event.id());
+            }
+            directoryStatistics.invalidate(event.tenant());
+        } finally {
+            TenantContext.set(previous);
+        }
+    }
+
+    // Events may have been missed: drop every cache and index, and reload the directory
+    public void flushAll() {
+        if (cacheManager instanceof TenantCacheManager tenantCacheManager) {
+            tenantCacheManager.clear();
+        }
+        permissionHolderIndex.invalidate();
+        userDirectory.reload();
+    }
+
+    private void userChanged(Long userId) {
+        Cache authorities = cacheManager.getCache(TenancyConfig.USER_AUTHORITIES_CACHE);
+        if (authorities != null) {
+            authorities.evict(userId);
+        }
+        permissionHolderIndex.userChanged(userId);
+        userDirectory.usersChanged(List.of(userId));
+    }
+
+    // The role's permissions, parents, users or name changed, or it was deleted or merged away
+    private void roleChanged(Long roleId) {
+        for (String name : List.of(TenancyConfig.ROLES_TREE_CACHE, TenancyConfig.ROLES_GROUPED_TREE_CACHE,
+                TenancyConfig.USER_AUTHORITIES_CACHE)) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        permissionHolderIndex.roleChanged(roleId);
+        permissionHolderIndex.hierarchyChanged();
+        // the users of a removed role may have moved to another; which ones is not known here
+        if (userDirectory.isReady() && jdbcTemplate.queryForObject(
+                "select count(*) from p_role where id = ?", Integer.class, roleId) == 0) {
+            userDirectory.reload();
+        }
+    }
+}
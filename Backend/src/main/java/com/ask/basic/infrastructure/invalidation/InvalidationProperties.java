@@ -0,0 +1,26 @@
+package com.ask.basic.infrastructure.invalidation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Cross-node cache invalidation, e.g.
+ * <pre>
+ * invalidation.enabled=true
+ * invalidation.channel=cache_invalidation
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "invalidation")
+public class InvalidationProperties {
+    private boolean enabled = false;
+    // PostgreSQL channel the events are sent on
+    private String channel = "cache_invalidation";
+    // How long the listener waits for notifications per call; without LISTEN, how often it polls the table
+    private int pollIntervalMs = 1_000;
+    private int reconnectDelayMs = 5_000;
+    // Events older than this are deleted; a node disconnected for longer flushes everything on return
+    private Duration retention = Duration.ofDays(1);
+}
@@ -0,0 +1,40 @@
+package com.ask.basic.infrastructure.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+// Counts entity loads and lazy collection fetches into the current request's statistics
+@Component
+@RequiredArgsConstructor
+public class HibernateLoadListener implements PostLoadEventListener, InitializeCollectionEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, this);
+        registry.appendListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestQueryStatistics.current().entityLoaded();
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        RequestQueryStatistics.current().collectionFetched();
+    }
+}
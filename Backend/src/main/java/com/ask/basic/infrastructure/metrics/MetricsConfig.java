@@ -0,0 +1,39 @@
+package com.ask.basic.infrastructure.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    // Backs the class-level @Timed on the service implementations
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // Routes every JDBC statement through StatementCountingListener; the pool stays reachable through unwrap()
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new StatementCountingListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.ask.basic.infrastructure.metrics;
+
+import com.ask.basic.infrastructure.querybudget.QueryBudget;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Publishes the SQL statements, entity loads and collection fetches of every request,
+ * tagged with the matched route template (not the raw URI) to keep cardinality low, and
+ * checks the request against its query budget.
+ * Runs ahead of the security chain so principal loading in JwtFilter is included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class QueryStatisticsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final QueryBudget queryBudget;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RequestQueryStatistics.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStatistics statistics = RequestQueryStatistics.current();
+            String uri = routeOf(request);
+            String method = request.getMethod();
+            summary("db.request.statements", "SQL statements executed per request", uri, method)
+                    .record(statistics.getStatements());
+            summary("hibernate.request.entity.loads", "Entities loaded per request", uri, method)
+                    .record(statistics.getEntityLoads());
+            summary("hibernate.request.collection.fetches", "Collections initialized per request", uri, method)
+                    .record(statistics.getCollectionFetches());
+            queryBudget.checkRequest(method, uri, statistics);
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, String uri, String method) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("uri", uri)
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String routeOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,74 @@
+package com.ask.basic.infrastructure.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-thread counters of the database work done while serving the current request. Reset by
+ * {@link QueryStatisticsFilter} at the start of every request; statements are fed by the
+ * datasource proxy, entity loads and collection fetches by the Hibernate listeners.
+ */
+public final class RequestQueryStatistics {
+
+    // Distinct statement shapes remembered per request, enough to spot the repeated one
+    private static final int MAX_SHAPES = 32;
+
+    private static final ThreadLocal<RequestQueryStatistics> CURRENT = ThreadLocal.withInitial(RequestQueryStatistics::new);
+
+    private long statements;
+    private long entityLoads;
+    private long collectionFetches;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+
+    private RequestQueryStatistics() {
+    }
+
+    public static RequestQueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void reset() {
+        RequestQueryStatistics statistics = CURRENT.get();
+        statistics.statements = 0;
+        statistics.entityLoads = 0;
+        statistics.collectionFetches = 0;
+        statistics.shapes.clear();
+    }
+
+    void statementExecuted(String sql) {
+        statements++;
+        String shape = StatementShapes.of(sql);
+        Integer count = shapes.get(shape);
+        if (count != null) {
+            shapes.put(shape, count + 1);
+        } else if (shapes.size() < MAX_SHAPES) {
+            shapes.put(shape, 1);
+        }
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void collectionFetched() {
+        collectionFetches++;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+
+    public long getCollectionFetches() {
+        return collectionFetches;
+    }
+
+    // Statement shape -> executions, in first-seen order
+    public Map<String, Integer> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ask.basic.infrastructure.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Counts every JDBC statement reaching the database (Hibernate and JdbcTemplate alike) into the
+ * current request's statistics. A batch counts once, as it is a single round trip.
+ */
+public class StatementCountingListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestQueryStatistics statistics = RequestQueryStatistics.current();
+        for (QueryInfo queryInfo : queryInfoList) {
+            statistics.statementExecuted(queryInfo.getQuery());
+        }
+    }
+}
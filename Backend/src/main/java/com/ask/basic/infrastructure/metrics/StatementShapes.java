@@ -0,0 +1,24 @@
+package com.ask.basic.infrastructure.metrics;
+
+import java.util.regex.Pattern;
+
+// Reduces a SQL statement to its shape so repeated executions with different values group together
+final class StatementShapes {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\bin\\s*\\((?:\\s*\\?\\s*,)+\\s*\\?\\s*\\)", Pattern.CASE_INSENSITIVE);
+    private static final int MAX_LENGTH = 300;
+
+    private StatementShapes() {
+    }
+
+    static String of(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?...)");
+        return shape.length() > MAX_LENGTH ? shape.substring(0, MAX_LENGTH) + "..." : shape;
+    }
+}
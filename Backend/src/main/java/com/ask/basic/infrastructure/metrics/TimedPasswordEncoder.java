@@ -0,0 +1,43 @@
+package com.ask.basic.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// Times the (deliberately expensive) hashing work of the wrapped encoder
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .description("Password hashing time")
+                .tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash")
+                .description("Password hashing time")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Boolean matches = matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+        return Boolean.TRUE.equals(matches);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
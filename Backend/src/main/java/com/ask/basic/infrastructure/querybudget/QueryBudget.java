@@ -0,0 +1,125 @@
+package com.ask.basic.infrastructure.querybudget;
+
+import com.ask.basic.infrastructure.metrics.RequestQueryStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Checks statement counts against the configured budgets. Over-budget requests and service calls
+ * are counted in {@code db.query.budget.exceeded}, and logged with the statement shapes they executed
+ * at most once per {@code warn-interval-ms} for each endpoint or service.
+ */
+@Log4j2
+@Component
+@EnableConfigurationProperties(QueryBudgetProperties.class)
+public class QueryBudget {
+
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Integer> endpointBudgets = new HashMap<>();
+    private final Map<String, Integer> serviceBudgets = new HashMap<>();
+    // keyed by scope and route template or service name, so bounded by the mappings and services
+    private final Map<String, Warnings> warnings = new ConcurrentHashMap<>();
+
+    public QueryBudget(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (QueryBudgetProperties.EndpointBudget budget : properties.getEndpoints()) {
+            endpointBudgets.put(endpointKey(budget.getMethod(), budget.getPattern()), budget.getMaxStatements());
+        }
+        for (QueryBudgetProperties.ServiceBudget budget : properties.getServices()) {
+            serviceBudgets.put(budget.getName(), budget.getMaxStatements());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void checkRequest(String method, String route, RequestQueryStatistics statistics) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Integer budget = endpointBudgets.get(endpointKey(method, route));
+        if (budget == null) {
+            budget = endpointBudgets.get(endpointKey(null, route));
+        }
+        if (budget == null && properties.getDefaultMaxStatements() > 0) {
+            budget = properties.getDefaultMaxStatements();
+        }
+        if (budget != null && statistics.getStatements() > budget) {
+            exceeded("request", method + " " + route, statistics.getStatements(), budget, statistics);
+        }
+    }
+
+    public void checkService(String name, long statements, RequestQueryStatistics statistics) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Integer budget = serviceBudgets.get(name);
+        if (budget != null && statements > budget) {
+            exceeded("service", name, statements, budget, statistics);
+        }
+    }
+
+    private void exceeded(String scope, String name, long statements, int budget, RequestQueryStatistics statistics) {
+        Counter.builder("db.query.budget.exceeded")
+                .description("Requests and service calls that ran more statements than their budget")
+                .tag("scope", scope)
+                .tag("name", name)
+                .register(meterRegistry)
+                .increment();
+
+        String message = String.format("Query budget exceeded for %s %s: %d statements, budget %d", scope, name, statements, budget);
+        long suppressed = warnings.computeIfAbsent(scope + " " + name, key -> new Warnings())
+                .tryWarn(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(properties.getWarnIntervalMs()));
+        if (suppressed >= 0) {
+            warn(message, suppressed, statistics);
+        }
+
+        if (properties.isStrict()) {
+            throw new QueryBudgetExceededException(message);
+        }
+    }
+
+    private void warn(String message, long suppressed, RequestQueryStatistics statistics) {
+        String shapes = statistics.getShapes().entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .map(entry -> entry.getValue() + "x " + entry.getKey())
+                .collect(Collectors.joining("\n  "));
+        log.warn("{}{}; statement shapes in this request:\n  {}", message,
+                suppressed > 0 ? " (" + suppressed + " more since the last warning)" : "", shapes);
+    }
+
+    private static final class Warnings {
+        private boolean warned;
+        private long warnedAt;
+        private long suppressed;
+
+        // The occurrences not logged since the last warning when this one is to be logged, -1 otherwise
+        synchronized long tryWarn(long now, long intervalNanos) {
+            if (warned && now - warnedAt < intervalNanos) {
+                suppressed++;
+                return -1;
+            }
+            long skipped = suppressed;
+            warned = true;
+            warnedAt = now;
+            suppressed = 0;
+            return skipped;
+        }
+    }
+
+    private static String endpointKey(String method, String pattern) {
+        return (method == null || method.isBlank() ? "*" : method.toUpperCase()) + " " + pattern;
+    }
+}
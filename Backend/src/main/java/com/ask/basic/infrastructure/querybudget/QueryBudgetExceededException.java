@@ -0,0 +1,9 @@
+package com.ask.basic.infrastructure.querybudget;
+
+// Thrown only in strict mode, so tests fail on query-count regressions
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
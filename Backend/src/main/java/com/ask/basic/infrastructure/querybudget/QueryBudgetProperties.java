@@ -0,0 +1,58 @@
+package com.ask.basic.infrastructure.querybudget;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statement budgets, e.g.
+ * <pre>
+ * query-budget.default-max-statements=50
+ * query-budget.warn-interval-ms=60000
+ * query-budget.endpoints[0].method=GET
+ * query-budget.endpoints[0].pattern=/api/v1/auth/user/{id}
+ * query-budget.endpoints[0].max-statements=4
+ * query-budget.services[0].name=UserServiceImpl.getUserById
+ * query-budget.services[0].max-statements=3
+ * </pre>
+ * Endpoint patterns are the route templates of the controller mappings. With {@code strict=true}
+ * an exceeded budget throws {@link QueryBudgetExceededException}, which is meant for test runs.
+ */
+@Data
+@ConfigurationProperties(prefix = "query-budget")
+public class QueryBudgetProperties {
+    private boolean enabled = true;
+    private boolean strict = false;
+    // Applies to endpoints without a budget of their own; 0 disables the default
+    private int defaultMaxStatements = 0;
+    // At most one WARN per endpoint or service in this interval; every occurrence is still counted
+    private long warnIntervalMs = 60_000;
+    private List<EndpointBudget> endpoints = new ArrayList<>();
+    private List<ServiceBudget> services = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EndpointBudget {
+        // Any method when empty
+        private String method;
+        private String pattern;
+        private int maxStatements;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ServiceBudget {
+        // SimpleClassName.methodName
+        private String name;
+        private int maxStatements;
+    }
+}
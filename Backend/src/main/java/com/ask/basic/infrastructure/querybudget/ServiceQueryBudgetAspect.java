@@ -0,0 +1,40 @@
+package com.ask.basic.infrastructure.querybudget;
+
+import com.ask.basic.infrastructure.metrics.RequestQueryStatistics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// Measures the statements run by each @Service method call and checks its budget
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceQueryBudgetAspect {
+
+    private final QueryBudget queryBudget;
+    private final MeterRegistry meterRegistry;
+
+    @Around("@within(org.springframework.stereotype.Service) && within(com.ask.basic.auth.service..*) && execution(public * *(..))")
+    public Object countStatements(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestQueryStatistics statistics = RequestQueryStatistics.current();
+        long before = statistics.getStatements();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long statements = statistics.getStatements() - before;
+            String className = joinPoint.getSignature().getDeclaringType().getSimpleName();
+            String methodName = joinPoint.getSignature().getName();
+            DistributionSummary.builder("db.service.statements")
+                    .description("SQL statements per service call")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .register(meterRegistry)
+                    .record(statements);
+            queryBudget.checkService(className + "." + methodName, statements, statistics);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ask.basic.infrastructure.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket in the GCRA form: the whole state is the theoretical arrival time of the next
+ * request, so consuming a permit is a single CAS. A bucket whose arrival time has passed is full
+ * and can be dropped without changing any decision.
+ */
+final class GcraBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    GcraBucket(long now) {
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * @return when allowed, the nanos until the bucket is full again (always positive);
+     * when rejected, minus the nanos until the next permit
+     */
+    long tryConsume(long now, long intervalNanos, long capacityNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, now) + intervalNanos;
+            long backlog = next - now;
+            if (backlog > capacityNanos) {
+                return capacityNanos - backlog;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return backlog;
+            }
+        }
+    }
+
+    // Gives back a permit taken by tryConsume for a request another limit rejected
+    void refund(long now, long intervalNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            if (arrival <= now || theoreticalArrival.compareAndSet(arrival, Math.max(now, arrival - intervalNanos))) {
+                return;
+            }
+        }
+    }
+
+    boolean isIdle(long now) {
+        return theoreticalArrival.get() - now <= 0;
+    }
+}
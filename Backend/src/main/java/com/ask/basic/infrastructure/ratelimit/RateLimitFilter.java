@@ -0,0 +1,128 @@
+package com.ask.basic.infrastructure.ratelimit;
+
+import com.ask.basic.infrastructure.response.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Per-user and per-address rate limits, placed right after {@code JwtFilter} so the authenticated
+ * subject is known. Authenticated requests spend from both their user and their address bucket,
+ * anonymous ones from the address bucket only. Answers carry {@code X-RateLimit-Limit},
+ * {@code X-RateLimit-Remaining} and {@code X-RateLimit-Reset} (seconds until the bucket is full)
+ * for the tighter of the two; rejected requests get 429 with {@code Retry-After}.
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<RouteLimiter> routes;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.routes = properties.getRoutes().stream()
+                .map(route -> new RouteLimiter(route, properties.getMaxBuckets(), meterRegistry))
+                .toList();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RouteLimiter route = properties.isEnabled() ? routeFor(request) : null;
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        String subject = subjectOf(SecurityContextHolder.getContext().getAuthentication());
+
+        RouteLimiter.Dimension tightest = null;
+        long tightestBacklog = 0;
+        if (subject != null && route.subject != null) {
+            tightest = route.subject;
+            tightestBacklog = route.subject.tryConsume(subject, now);
+        }
+        if (route.ip != null && (tightest == null || tightestBacklog > 0)) {
+            long backlog = route.ip.tryConsume(request.getRemoteAddr(), now);
+            if (backlog < 0 && tightest != null) {
+                // rejected by its address: the request does not count against the user
+                route.subject.refund(subject, now);
+            }
+            if (tightest == null || backlog < 0 || route.ip.remaining(backlog) < tightest.remaining(tightestBacklog)) {
+                tightest = route.ip;
+                tightestBacklog = backlog;
+            }
+        }
+        if (tightest == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setIntHeader("X-RateLimit-Limit", tightest.limit);
+        response.setHeader("X-RateLimit-Remaining", Long.toString(tightest.remaining(tightestBacklog)));
+        if (tightestBacklog > 0) {
+            response.setHeader("X-RateLimit-Reset", Long.toString(toSeconds(tightestBacklog)));
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Rejected: the backlog is minus the wait for the next permit
+        long waitNanos = -tightestBacklog;
+        tightest.rejected.increment();
+        response.setHeader("X-RateLimit-Reset", Long.toString(toSeconds(waitNanos + tightest.capacityNanos - tightest.intervalNanos)));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(toSeconds(waitNanos)));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Too many requests, please retry later", "RATE_LIMITED", request.getRequestURI()));
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void sweepIdleBuckets() {
+        long now = System.nanoTime();
+        routes.forEach(route -> route.sweep(now));
+    }
+
+    private RouteLimiter routeFor(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        for (RouteLimiter route : routes) {
+            if (route.matchesMethod(request.getMethod()) && route.matchesPath(uri)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static String subjectOf(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetails user) {
+            return user.getUsername();
+        }
+        return null;
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ask.basic.infrastructure.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limits per route, e.g.
+ * <pre>
+ * rate-limit.routes[0].method=POST
+ * rate-limit.routes[0].pattern=/api/v1/auth/authenticate
+ * rate-limit.routes[0].ip-limit=20
+ * rate-limit.routes[0].period=1m
+ * rate-limit.routes[1].pattern=/api/v1/auth/**
+ * rate-limit.routes[1].subject-limit=300
+ * rate-limit.routes[1].ip-limit=600
+ * </pre>
+ * The first matching route applies. A limit of 0 leaves that dimension unlimited; the whole
+ * limit may be spent as a burst, after which permits come back evenly over the period.
+ */
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // Buckets kept per route and dimension; keys beyond it share one overflow bucket
+    private int maxBuckets = 100_000;
+    private long sweepIntervalMs = 60_000;
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Route {
+        // Any method when empty
+        private String method;
+        private String pattern;
+        // Requests per period for one authenticated user
+        private int subjectLimit;
+        // Requests per period for one client address, authenticated or not
+        private int ipLimit;
+        @Builder.Default
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
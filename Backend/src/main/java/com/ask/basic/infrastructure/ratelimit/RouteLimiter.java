@@ -0,0 +1,122 @@
+package com.ask.basic.infrastructure.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The buckets of one configured route: one map keyed by subject and one keyed by client address.
+ */
+final class RouteLimiter {
+
+    private final String method;
+    private final PathPattern pattern;
+    // Patterns that are a literal path, optionally followed by /**, match on the URI string alone
+    private final String literal;
+    private final boolean literalPrefix;
+    final Dimension subject;
+    final Dimension ip;
+
+    RouteLimiter(RateLimitProperties.Route route, int maxBuckets, MeterRegistry meterRegistry) {
+        this.method = StringUtils.hasText(route.getMethod()) ? route.getMethod().toUpperCase() : null;
+        this.pattern = PathPatternParser.defaultInstance.parse(route.getPattern());
+        this.literalPrefix = route.getPattern().endsWith("/**");
+        String head = literalPrefix ? route.getPattern().substring(0, route.getPattern().length() - 3) : route.getPattern();
+        this.literal = head.matches("[^*?{}]*") ? head : null;
+        long periodNanos = route.getPeriod().toNanos();
+        this.subject = route.getSubjectLimit() > 0
+                ? new Dimension(route.getSubjectLimit(), periodNanos, maxBuckets, counter(meterRegistry, route, "subject"))
+                : null;
+        this.ip = route.getIpLimit() > 0
+                ? new Dimension(route.getIpLimit(), periodNanos, maxBuckets, counter(meterRegistry, route, "ip"))
+                : null;
+    }
+
+    boolean matchesMethod(String requestMethod) {
+        return method == null || method.equals(requestMethod);
+    }
+
+    boolean matchesPath(String uri) {
+        // escaped characters only match once decoded, which takes the parsed path
+        if (literal == null || uri.indexOf('%') >= 0) {
+            return pattern.matches(PathContainer.parsePath(uri));
+        }
+        if (!uri.startsWith(literal)) {
+            return false;
+        }
+        if (uri.length() == literal.length()) {
+            return true;
+        }
+        return literalPrefix && uri.charAt(literal.length()) == '/';
+    }
+
+    void sweep(long now) {
+        if (subject != null) {
+            subject.sweep(now);
+        }
+        if (ip != null) {
+            ip.sweep(now);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, RateLimitProperties.Route route, String dimension) {
+        return Counter.builder("rate.limit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("route", route.getPattern())
+                .tag("dimension", dimension)
+                .register(meterRegistry);
+    }
+
+    static final class Dimension {
+        final int limit;
+        final long intervalNanos;
+        final long capacityNanos;
+        final Counter rejected;
+        private final int maxBuckets;
+        private final Map<String, GcraBucket> buckets = new ConcurrentHashMap<>();
+        private final GcraBucket overflow;
+
+        Dimension(int limit, long periodNanos, int maxBuckets, Counter rejected) {
+            this.limit = limit;
+            this.intervalNanos = Math.max(1, periodNanos / limit);
+            this.capacityNanos = intervalNanos * limit;
+            this.maxBuckets = maxBuckets;
+            this.rejected = rejected;
+            this.overflow = new GcraBucket(System.nanoTime());
+        }
+
+        long tryConsume(String key, long now) {
+            GcraBucket bucket = buckets.get(key);
+            if (bucket == null) {
+                // Under a flood of distinct keys new ones share a bucket instead of growing the map
+                bucket = buckets.size() < maxBuckets ? buckets.computeIfAbsent(key, ignored -> new GcraBucket(now)) : overflow;
+            }
+            return bucket.tryConsume(now, intervalNanos, capacityNanos);
+        }
+
+        void refund(String key, long now) {
+            GcraBucket bucket = buckets.get(key);
+            if (bucket == null && buckets.size() >= maxBuckets) {
+                bucket = overflow;
+            }
+            if (bucket != null) {
+                bucket.refund(now, intervalNanos);
+            }
+        }
+
+        long remaining(long backlogNanos) {
+            return backlogNanos < 0 ? 0 : (capacityNanos - backlogNanos) / intervalNanos;
+        }
+
+        // A bucket removed while a request was consuming it costs at most that one permit
+        void sweep(long now) {
+            buckets.values().removeIf(bucket -> bucket.isIdle(now));
+        }
+    }
+}
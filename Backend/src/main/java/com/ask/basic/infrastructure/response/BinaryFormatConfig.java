@@ -0,0 +1,30 @@
+package com.ask.basic.infrastructure.response;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary encodings of the same {@link ApiResponse} envelope, chosen with
+ * {@code Accept: application/cbor} or {@code Accept: application/x-jackson-smile}. JSON stays the
+ * default for any other {@code Accept}. The mappers come from Boot's builder so {@code spring.jackson.*}
+ * settings and modules apply exactly as for JSON; these beans take the place of the plain converters
+ * Spring MVC would otherwise register after the JSON one.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
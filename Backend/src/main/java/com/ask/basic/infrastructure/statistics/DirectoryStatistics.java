@@ -0,0 +1,204 @@
+package com.ask.basic.infrastructure.statistics;
+
+import com.ask.basic.auth.domain.AccountStatus;
+import com.ask.basic.infrastructure.tenancy.TenantIdentifierResolver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dashboard counters per tenant: users, active users, users per account status and users per role.
+ * A tenant's counters are loaded with a few grouped counts on first use, then moved by the user and
+ * role write paths once their transaction commits, so reading them never touches the user table.
+ * Every loaded tenant is recounted periodically and replaced by the recount. An update committing
+ * while a recount runs can be lost to it, so a drift is only logged when two recounts in a row find one.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class DirectoryStatistics {
+
+    // users whose account status was never set
+    public static final String NO_STATUS = "NONE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantIdentifierResolver tenantIdentifierResolver;
+
+    private final Map<String, Counters> tenants = new ConcurrentHashMap<>();
+    // tenants whose last recount differed from their counters
+    private final Set<String> drifted = ConcurrentHashMap.newKeySet();
+
+    public record RoleUsers(Long roleId, String name, long users) {
+    }
+
+    public record Snapshot(long users, long activeUsers, Map<String, Long> accountStatuses,
+                           List<RoleUsers> roles, LocalDateTime countedAt) {
+    }
+
+    public Snapshot snapshot() {
+        return tenants.computeIfAbsent(tenantIdentifierResolver.resolveCurrentTenantIdentifier(), this::count).snapshot();
+    }
+
+    public void userAdded(Boolean active, AccountStatus status) {
+        afterCommit(counters -> counters.addUser(active, status, 1));
+    }
+
+    public void userChanged(Boolean activeBefore, AccountStatus statusBefore, Boolean active, AccountStatus status) {
+        if (Objects.equals(activeBefore, active) && statusBefore == status) {
+            return;
+        }
+        afterCommit(counters -> {
+            counters.addUser(activeBefore, statusBefore, -1);
+            counters.addUser(active, status, 1);
+        });
+    }
+
+    // The roles of one user were replaced
+    public void userRolesChanged(Collection<Long> previousRoleIds, Collection<Long> roleIds) {
+        Set<Long> removed = new HashSet<>(previousRoleIds);
+        removed.removeAll(roleIds);
+        Set<Long> added = new HashSet<>(roleIds);
+        added.removeAll(previousRoleIds);
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+        afterCommit(counters -> {
+            removed.forEach(roleId -> counters.addRoleUsers(roleId, -1));
+            added.forEach(roleId -> counters.addRoleUsers(roleId, 1));
+        });
+    }
+
+    // A role was created, renamed, deleted, or had users moved onto it; only that role is recounted
+    public void roleChanged(Long roleId) {
+        afterCommit(counters -> {
+            List<RoleUsers> rows = jdbcTemplate.query("select r.id, r.name, (select count(*) from p_user_role ur " +
+                            "where ur.role_id = r.id) from p_role r where r.id = ?",
+                    (rs, i) -> new RoleUsers(rs.getLong(1), rs.getString(2), rs.getLong(3)), roleId);
+            counters.setRole(roleId, rows.isEmpty() ? null : rows.get(0));
+        });
+    }
+
+    // Rows were written behind the services' back; the next read counts the tenant again
+    public void invalidate(String tenant) {
+        tenants.remove(tenant);
+    }
+
+    @Scheduled(fixedDelayString = "${directory-statistics.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        drifted.retainAll(tenants.keySet());
+        for (String tenant : List.copyOf(tenants.keySet())) {
+            // counted outside the map, so reads of the tenant are not held up by the queries
+            Counters recounted = count(tenant);
+            tenants.computeIfPresent(tenant, (name, counters) -> {
+                Snapshot before = counters.snapshot();
+                Snapshot after = recounted.snapshot();
+                if (before.users() == after.users() && before.activeUsers() == after.activeUsers()
+                        && before.accountStatuses().equals(after.accountStatuses()) && before.roles().equals(after.roles())) {
+                    drifted.remove(tenant);
+                } else if (!drifted.add(tenant)) {
+                    log.warn("Directory statistics of tenant '{}' drifted again: {} users ({} active) counted as {} ({} active)",
+                            tenant, after.users(), after.activeUsers(), before.users(), before.activeUsers());
+                } else {
+                    log.debug("Directory statistics of tenant '{}' differ from the recount, possibly from a write during the previous one", tenant);
+                }
+                return recounted;
+            });
+        }
+    }
+
+    private void afterCommit(CountersUpdate update) {
+        String tenant = tenantIdentifierResolver.resolveCurrentTenantIdentifier();
+        Runnable apply = () -> {
+            Counters counters = tenants.get(tenant);
+            // not counted yet: the first read counts the committed state anyway
+            if (counters != null) {
+                update.apply(counters);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private Counters count(String tenant) {
+        Counters counters = new Counters();
+        jdbcTemplate.query("select is_active, account_status, count(*) from p_app_user where tenant_id = ? " +
+                "group by is_active, account_status", rs -> {
+            String status = rs.getString(2);
+            counters.addUser(rs.getBoolean(1), status != null ? AccountStatus.valueOf(status) : null, rs.getLong(3));
+        }, tenant);
+        jdbcTemplate.query("select r.id, r.name, count(ur.user_id) from p_role r left join p_user_role ur on ur.role_id = r.id " +
+                "where r.tenant_id = ? group by r.id, r.name", rs -> {
+            counters.setRole(rs.getLong(1), new RoleUsers(rs.getLong(1), rs.getString(2), rs.getLong(3)));
+        }, tenant);
+        return counters;
+    }
+
+    @FunctionalInterface
+    private interface CountersUpdate {
+        void apply(Counters counters);
+    }
+
+    // Writes are rare next to reads, so one monitor per tenant keeps every snapshot consistent
+    private static final class Counters {
+        private final LocalDateTime countedAt = LocalDateTime.now();
+        private long users;
+        private long activeUsers;
+        private final Map<String, Long> accountStatuses = new LinkedHashMap<>();
+        private final Map<Long, RoleUsers> roles = new HashMap<>();
+
+        synchronized void addUser(Boolean active, AccountStatus status, long delta) {
+            users += delta;
+            if (Boolean.TRUE.equals(active)) {
+                activeUsers += delta;
+            }
+            accountStatuses.merge(status != null ? status.name() : NO_STATUS, delta, Long::sum);
+        }
+
+        synchronized void addRoleUsers(Long roleId, long delta) {
+            roles.computeIfPresent(roleId, (id, role) -> new RoleUsers(id, role.name(), role.users() + delta));
+        }
+
+        synchronized void setRole(Long roleId, RoleUsers role) {
+            if (role == null) {
+                roles.remove(roleId);
+            } else {
+                roles.put(roleId, role);
+            }
+        }
+
+        synchronized Snapshot snapshot() {
+            Map<String, Long> statuses = new LinkedHashMap<>();
+            for (AccountStatus status : AccountStatus.values()) {
+                statuses.put(status.name(), accountStatuses.getOrDefault(status.name(), 0L));
+            }
+            statuses.put(NO_STATUS, accountStatuses.getOrDefault(NO_STATUS, 0L));
+            List<RoleUsers> roleUsers = new ArrayList<>(roles.values());
+            roleUsers.sort((a, b) -> Long.compare(a.roleId(), b.roleId()));
+            return new Snapshot(users, activeUsers, statuses, roleUsers, countedAt);
+        }
+    }
+}
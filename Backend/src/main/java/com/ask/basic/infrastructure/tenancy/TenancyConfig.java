@@ -0,0 +1,21 @@
+package com.ask.basic.infrastructure.tenancy;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class TenancyConfig {
+
+    public static final String ROLES_TREE_CACHE = "rolesTree";
+    public static final String ROLES_GROUPED_TREE_CACHE = "rolesGroupedTree";
+    public static final String PERMISSIONS_GROUPED_CACHE = "permissionsGrouped";
+    public static final String USER_AUTHORITIES_CACHE = "userAuthorities";
+
+    @Bean
+    public CacheManager cacheManager(TenantIdentifierResolver tenantResolver, TenancyProperties properties) {
+        return new TenantCacheManager(tenantResolver, properties.getMaxCachedTenants());
+    }
+}
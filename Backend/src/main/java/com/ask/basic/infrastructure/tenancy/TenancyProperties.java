@@ -0,0 +1,13 @@
+package com.ask.basic.infrastructure.tenancy;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "tenancy")
+public class TenancyProperties {
+    // Tenant of requests without a token or X-Tenant-ID header, and of work outside requests
+    private String defaultTenant = "default";
+    // Tenants that get their own caches; caching is skipped for any tenant beyond it
+    private int maxCachedTenants = 256;
+}
@@ -0,0 +1,58 @@
+package com.ask.basic.infrastructure.tenancy;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves every cache name to a cache of the current tenant, so entries of one school are never
+ * served to, or evicted by, another. {@code @CacheEvict(allEntries = true)} therefore clears the
+ * current tenant only. Past {@code maxTenants} distinct tenants, new ones are not cached at all.
+ */
+public class TenantCacheManager implements CacheManager {
+
+    private final TenantIdentifierResolver tenantResolver;
+    private final int maxTenants;
+    private final Map<String, CacheManager> tenants = new ConcurrentHashMap<>();
+
+    public TenantCacheManager(TenantIdentifierResolver tenantResolver, int maxTenants) {
+        this.tenantResolver = tenantResolver;
+        this.maxTenants = maxTenants;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        String tenant = tenantResolver.resolveCurrentTenantIdentifier();
+        CacheManager manager = tenants.get(tenant);
+        if (manager == null) {
+            if (tenants.size() >= maxTenants) {
+                return new NoOpCache(name);
+            }
+            manager = tenants.computeIfAbsent(tenant, ignored -> new ConcurrentMapCacheManager());
+        }
+        return manager.getCache(name);
+    }
+
+    // Every cache of every tenant, whatever the current one
+    public void clear() {
+        tenants.values().forEach(manager -> manager.getCacheNames().forEach(name -> {
+            Cache cache = manager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return tenants.values().stream()
+                .flatMap(manager -> manager.getCacheNames().stream())
+                .distinct()
+                .toList();
+    }
+}
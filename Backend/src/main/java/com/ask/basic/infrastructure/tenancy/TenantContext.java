@@ -0,0 +1,28 @@
+package com.ask.basic.infrastructure.tenancy;
+
+/**
+ * Tenant (school) of the current request. Set by {@link TenantFilter} from the {@code X-Tenant-ID}
+ * header and replaced by {@code JwtFilter} with the tenant claim of a valid token.
+ */
+public final class TenantContext {
+
+    public static final String TENANT_CLAIM = "tenant";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    // Null outside a request; TenantIdentifierResolver then falls back to the default tenant
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    public static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
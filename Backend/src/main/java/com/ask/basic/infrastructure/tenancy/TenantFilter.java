@@ -0,0 +1,59 @@
+package com.ask.basic.infrastructure.tenancy;
+
+import com.ask.basic.infrastructure.response.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Binds the request to a tenant: the {@code X-Tenant-ID} header for unauthenticated calls such as
+ * login and register, otherwise the default tenant. {@code JwtFilter} later overrides it with the
+ * tenant of the token, so an authenticated caller cannot switch schools with the header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+@EnableConfigurationProperties(TenancyProperties.class)
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final String TENANT_HEADER = "X-Tenant-ID";
+
+    private static final Pattern VALID_TENANT = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final TenancyProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String tenant = request.getHeader(TENANT_HEADER);
+        if (tenant == null || tenant.isEmpty()) {
+            tenant = properties.getDefaultTenant();
+        } else if (!VALID_TENANT.matcher(tenant).matches()) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiResponse.error("Invalid " + TENANT_HEADER + " header", "INVALID_TENANT", request.getRequestURI()));
+            return;
+        }
+
+        TenantContext.set(tenant);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
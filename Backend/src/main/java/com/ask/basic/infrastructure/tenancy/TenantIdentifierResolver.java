@@ -0,0 +1,36 @@
+package com.ask.basic.infrastructure.tenancy;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Gives Hibernate the tenant of every session it opens, which scopes all queries on
+ * {@code @TenantId} entities and stamps the tenant on inserted rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver, HibernatePropertiesCustomizer {
+
+    private final TenancyProperties properties;
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        String tenant = TenantContext.get();
+        return tenant != null ? tenant : properties.getDefaultTenant();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return true;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+    }
+}
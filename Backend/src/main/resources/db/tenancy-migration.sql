@@ -0,0 +1,32 @@
+-- Moves an existing single-school database to tenant-scoped users and roles (PostgreSQL).
+-- Run once before starting the tenancy-aware build; existing rows go to the 'default' tenant.
+begin;
+
+alter table p_app_user add column if not exists tenant_id varchar(64) not null default 'default';
+alter table p_role add column if not exists tenant_id varchar(64) not null default 'default';
+alter table p_app_user alter column tenant_id drop default;
+alter table p_role alter column tenant_id drop default;
+
+-- drop the global unique constraints on email, username and role name, whatever their generated names
+do $$
+declare c record;
+begin
+    for c in select con.conname, rel.relname
+             from pg_constraint con
+             join pg_class rel on rel.oid = con.conrelid
+             where con.contype = 'u'
+               and rel.relname in ('p_app_user', 'p_role')
+               and array_length(con.conkey, 1) = 1
+               and (select attname from pg_attribute
+                    where attrelid = con.conrelid and attnum = con.conkey[1]) in ('email', 'username', 'name')
+    loop
+        execute format('alter table %I drop constraint %I', c.relname, c.conname);
+    end loop;
+end $$;
+
+-- tenant-leading composite keys: every lookup of a school stays inside that school's index range
+alter table p_app_user add constraint user_tenant_email_unique unique (tenant_id, email);
+alter table p_app_user add constraint user_tenant_username_unique unique (tenant_id, username);
+alter table p_role add constraint role_tenant_name_unique unique (tenant_id, name);
+
+commit;